@@ -1,9 +1,17 @@
 plugins {
     id("org.springframework.boot") version "3.2.5"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
     java
 }
 
+// Spring AOT processing: ./gradlew bootJar -PstartupOptimized, then run with -Dspring.aot.enabled=true.
+// Bean definitions, conditions and active profiles are fixed at build time.
+val startupOptimized = project.hasProperty("startupOptimized")
+if (startupOptimized) {
+    apply(plugin = "org.springframework.boot.aot")
+}
+
 group = "com.example"
 version = "1.0.0-SNAPSHOT"
 
@@ -23,6 +31,7 @@ repositories {
 }
 
 extra["springAiVersion"] = "1.0.0-M1"
+extra["resilience4jVersion"] = "2.2.0"
 
 dependencies {
     // Spring Boot Starters
@@ -30,12 +39,27 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-logging")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("io.micrometer:micrometer-registry-prometheus")
 
     // Spring AI Dependencies
     implementation("org.springframework.ai:spring-ai-openai-spring-boot-starter:${property("springAiVersion")}")
 
     // JSON Processing
     implementation("com.fasterxml.jackson.core:jackson-databind")
+    // Binary response encodings, negotiated with Accept: application/cbor or application/x-jackson-smile
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+
+    // Local token counting
+    implementation("com.knuddels:jtokkit:1.0.0")
+
+    // Caching
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    // Resilience
+    implementation("io.github.resilience4j:resilience4j-spring-boot3:${property("resilience4jVersion")}")
+    implementation("io.github.resilience4j:resilience4j-reactor:${property("resilience4jVersion")}")
 
     // Development Tools
     developmentOnly("org.springframework.boot:spring-boot-devtools")
@@ -58,6 +82,106 @@ tasks.named<Test>("test") {
     useJUnitPlatform()
 }
 
+// JMH benchmarks (src/jmh/java); results are written as JSON so runs can be compared between commits
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    // Run a subset with: ./gradlew jmh -PjmhIncludes=IntentClassifier
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(listOf(project.property("jmhIncludes").toString()))
+    }
+    // Add profilers with: ./gradlew jmh -PjmhProfilers=gc
+    if (project.hasProperty("jmhProfilers")) {
+        profilers.set(project.property("jmhProfilers").toString().split(","))
+    }
+}
+
+// Load-test harness (src/loadtest/java): stub OpenAI and MCP servers plus an open-model load driver,
+// using only the JDK so it runs offline. Pass driver and stub options with -PloadTestArgs="--rate=200 --duration=2m"
+sourceSets {
+    create("loadtest")
+}
+
+val loadTestArgs = (findProperty("loadTestArgs")?.toString() ?: "").split(" ").filter { it.isNotBlank() }
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Run open-model load against the prompt API, backed by stub OpenAI and MCP servers"
+    group = "verification"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set("com.example.springaimcp.loadtest.LoadDriver")
+    val appClasspath = sourceSets.main.get().runtimeClasspath
+    dependsOn(tasks.named("classes"))
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("--app-classpath=${appClasspath.asPath}") + loadTestArgs
+    })
+}
+
+tasks.register<JavaExec>("loadTestStubs") {
+    description = "Run the stub OpenAI and MCP servers until stopped, for load tests against a separately started application"
+    group = "verification"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set("com.example.springaimcp.loadtest.StubServers")
+    args = loadTestArgs
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    description = "Measure time from launch to the first successful prompt, against stub OpenAI and MCP servers"
+    group = "verification"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set("com.example.springaimcp.loadtest.StartupBenchmark")
+    val appClasspath = sourceSets.main.get().runtimeClasspath
+    dependsOn(tasks.named("classes"))
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("--app-classpath=${appClasspath.asPath}", "--llm-latency=5,20", "--mcp-latency=5,20") + loadTestArgs
+    })
+}
+
+// Class-data-sharing archive: build/cds holds app.jar, its dependencies under lib/ and app.jsa,
+// dumped by a training run that exits once the context has refreshed. CDS needs the same jars
+// at the same paths at runtime, so run from that directory:
+//   cd build/cds && java -XX:SharedArchiveFile=app.jsa -jar app.jar
+// Pick the JDK the application runs on with -PcdsJava=/path/to/bin/java; add -PstartupOptimized
+// to include the AOT-generated code and train with it enabled.
+val cdsDir = layout.buildDirectory.dir("cds")
+
+val cdsLibs = tasks.register<Sync>("cdsLibs") {
+    from(configurations.runtimeClasspath)
+    into(cdsDir.map { it.dir("lib") })
+}
+
+val cdsJar = tasks.register<Jar>("cdsJar") {
+    description = "Build a plain application jar referencing its dependencies under lib/, for CDS"
+    dependsOn(cdsLibs)
+    archiveFileName.set("app.jar")
+    destinationDirectory.set(cdsDir)
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    from(sourceSets.main.get().output)
+    if (startupOptimized) {
+        from(sourceSets["aot"].output)
+    }
+    val runtimeClasspath = configurations.runtimeClasspath
+    manifest {
+        attributes("Main-Class" to "com.example.springaimcp.SpringAiMcpApplication")
+    }
+    doFirst {
+        manifest.attributes("Class-Path" to runtimeClasspath.get().files.joinToString(" ") { "lib/${it.name}" })
+    }
+}
+
+tasks.register<Exec>("cdsArchive") {
+    description = "Dump a CDS archive of the classes loaded while the application starts"
+    group = "build"
+    dependsOn(cdsJar)
+    workingDir(cdsDir)
+    executable = findProperty("cdsJava")?.toString() ?: "${System.getProperty("java.home")}/bin/java"
+    args("-XX:ArchiveClassesAtExit=app.jsa", "-Dspring.context.exit=onRefresh")
+    if (startupOptimized) {
+        args("-Dspring.aot.enabled=true")
+    }
+    args("-jar", "app.jar")
+}
+
 // Custom tasks
 tasks.register<JavaExec>("runDev") {
     description = "Run the application with dev profile"
@@ -0,0 +1,221 @@
+package com.example.springaimcp;
+
+import com.example.springaimcp.service.AiMcpService;
+import com.example.springaimcp.service.McpIntegrationMode;
+import com.example.springaimcp.service.audit.AuditLog;
+import com.example.springaimcp.service.cache.DiskResponseCache;
+import com.example.springaimcp.service.cache.LlmResponseCache;
+import com.example.springaimcp.service.cache.SemanticResponseCache;
+import com.example.springaimcp.service.conversation.ConversationStore;
+import com.example.springaimcp.service.embedding.HashingPromptEmbedder;
+import com.example.springaimcp.service.llm.ChatOptionsFactory;
+import com.example.springaimcp.service.mcp.GitHubIssue;
+import com.example.springaimcp.service.mcp.GitHubMcpClient;
+import com.example.springaimcp.service.mcp.GitHubRepository;
+import com.example.springaimcp.service.mcp.McpEndpointPool;
+import com.example.springaimcp.service.mcp.McpQueryCache;
+import com.example.springaimcp.service.mcp.McpResultReader;
+import com.example.springaimcp.service.mcp.McpToolCallbacks;
+import com.example.springaimcp.service.mcp.McpToolCatalog;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.example.springaimcp.service.prompt.PromptAssembler;
+import com.example.springaimcp.service.prompt.TokenCounter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared inputs and in-process stubs for the JMH benchmarks
+ */
+public final class BenchmarkFixtures {
+
+    /** Matches the @Size maximum on PromptRequest.prompt */
+    public static final int MAX_PROMPT_LENGTH = 2000;
+
+    /** Configured like the application's mappers: no field projection unless a writer sets one */
+    public static final ObjectMapper OBJECT_MAPPER = objectMapper(new JsonFactory());
+
+    public static final PromptMetrics METRICS = new PromptMetrics(new SimpleMeterRegistry());
+
+    /** Disabled, so benchmarks of the prompt path do not write audit files */
+    public static final AuditLog AUDIT_LOG = new AuditLog(METRICS, false, Path.of("unused"), 1.0, 2, 1,
+            Duration.ofMillis(200), DataSize.ofMegabytes(1), 1, 4000);
+
+    public static final TokenCounter TOKEN_COUNTER = new TokenCounter();
+
+    public static final ChatOptionsFactory CHAT_OPTIONS = new ChatOptionsFactory("gpt-4.1", 0.7f, 1000, "", 0, "");
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Mapper over the given JSON, CBOR or Smile factory, with the application's property filter setup
+     */
+    public static ObjectMapper objectMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .findAndRegisterModules()
+                .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * A prompt of exactly {@link #MAX_PROMPT_LENGTH} characters of filler text, ending with the suffix
+     */
+    public static String promptEndingWith(String suffix) {
+        String filler = "Please improve the pricing summary and explain the approach in plain words. ";
+        StringBuilder prompt = new StringBuilder(MAX_PROMPT_LENGTH);
+        while (prompt.length() < MAX_PROMPT_LENGTH - suffix.length()) {
+            prompt.append(filler);
+        }
+        prompt.setLength(MAX_PROMPT_LENGTH - suffix.length());
+        return prompt.append(suffix).toString();
+    }
+
+    /**
+     * MCP server response shaped like a repository listing with issues
+     */
+    public static Map<String, Object> mcpResponse(int items) {
+        List<Map<String, Object>> repositories = new ArrayList<>();
+        List<Map<String, Object>> issues = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> repository = new LinkedHashMap<>();
+            repository.put("name", "service-" + i);
+            repository.put("full_name", "example/service-" + i);
+            repository.put("description", "Backend service number " + i + " handling orders and payments");
+            repository.put("stargazers_count", 100 + i);
+            repository.put("html_url", "https://github.com/example/service-" + i);
+            repositories.add(repository);
+
+            Map<String, Object> issue = new LinkedHashMap<>();
+            issue.put("number", 1000 + i);
+            issue.put("title", "Timeouts when calling the payment gateway #" + i);
+            issue.put("state", "open");
+            issue.put("html_url", "https://github.com/example/service-0/issues/" + (1000 + i));
+            issues.add(issue);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("repositories", repositories);
+        result.put("issues", issues);
+        result.put("status", "success");
+        return result;
+    }
+
+    /**
+     * The same listing as parsed by the MCP client into typed records
+     */
+    public static Map<String, Object> mcpResult(int items) {
+        List<GitHubRepository> repositories = new ArrayList<>();
+        List<GitHubIssue> issues = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            repositories.add(new GitHubRepository("service-" + i, "example/service-" + i,
+                    "Backend service number " + i + " handling orders and payments",
+                    "https://github.com/example/service-" + i, 100 + i, null));
+            issues.add(new GitHubIssue(1000 + i, "Timeouts when calling the payment gateway #" + i, "open", null,
+                    "https://github.com/example/service-0/issues/" + (1000 + i)));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "success");
+        result.put("repositories", repositories);
+        result.put("issues", issues);
+        return result;
+    }
+
+    /**
+     * Streaming chat model that answers every prompt with the given number of chunks
+     */
+    public static StreamingChatModel stubChatModel(int chunks) {
+        List<ChatResponse> responses = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            responses.add(new ChatResponse(List.of(new Generation("token" + i + " "))));
+        }
+        return prompt -> Flux.fromIterable(responses);
+    }
+
+    /**
+     * WebClient whose exchange function answers every request with the given JSON, without any I/O
+     */
+    public static WebClient stubMcpWebClient(Map<String, Object> body) {
+        String json;
+        try {
+            json = OBJECT_MAPPER.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(json)
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Single-endpoint pool over the given WebClient, with hedging off and health probes not started
+     */
+    public static McpEndpointPool mcpEndpointPool(WebClient webClient) {
+        return new McpEndpointPool(webClient, List.of("http://mcp.stub"), METRICS, false, 0.95,
+                Duration.ofMillis(500), Duration.ofMillis(20), "/mcp/tools", Duration.ofSeconds(10),
+                Duration.ofSeconds(2), 2);
+    }
+
+    public static GitHubMcpClient gitHubMcpClient(WebClient webClient) {
+        McpQueryCache queryCache = new McpQueryCache(false, 1, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+        return new GitHubMcpClient(mcpEndpointPool(webClient), queryCache, mcpResultReader(10, 100),
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), METRICS, AUDIT_LOG, Duration.ofSeconds(30));
+    }
+
+    public static McpResultReader mcpResultReader(int maxResults, int maxItems) {
+        return new McpResultReader(maxResults, maxItems, DataSize.ofMegabytes(1));
+    }
+
+    /**
+     * AiMcpService wired to in-process stubs, with the LLM response and semantic caches disabled
+     */
+    public static AiMcpService aiMcpService(StreamingChatModel chatModel, GitHubMcpClient gitHubMcpClient) {
+        DiskResponseCache diskCache = new DiskResponseCache(false, Path.of("unused"), DataSize.ofMegabytes(64),
+                DataSize.ofGigabytes(1), Duration.ofMinutes(10), 0.5);
+        LlmResponseCache responseCache = new LlmResponseCache(false, Duration.ofHours(1), 1, DataSize.ofMegabytes(1), diskCache);
+        McpQueryCache queryCache = new McpQueryCache(false, 1, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+        SemanticResponseCache semanticCache = new SemanticResponseCache(new HashingPromptEmbedder(256), queryCache,
+                false, 0.92f, Duration.ofHours(1), 2, 16, 100, 64);
+        McpToolCatalog toolCatalog = new McpToolCatalog(gitHubMcpClient, OBJECT_MAPPER, Duration.ofMinutes(5));
+        McpToolCallbacks toolCallbacks = new McpToolCallbacks(gitHubMcpClient, toolCatalog, METRICS, Duration.ofSeconds(10));
+        ChatModel toolCallingModel = prompt -> chatModel.stream(prompt).blockLast();
+        return new AiMcpService(chatModel, toolCallingModel, gitHubMcpClient, responseCache, semanticCache, toolCatalog,
+                toolCallbacks, METRICS, AUDIT_LOG, TOKEN_COUNTER, promptAssembler(6000), conversationStore(chatModel),
+                CHAT_OPTIONS, Duration.ofSeconds(30), McpIntegrationMode.APPEND);
+    }
+
+    public static ConversationStore conversationStore(StreamingChatModel chatModel) {
+        return new ConversationStore(chatModel, TOKEN_COUNTER, CHAT_OPTIONS, Duration.ofMinutes(30), 10_000,
+                DataSize.ofMegabytes(64), 2000, 400, Duration.ofSeconds(30));
+    }
+
+    public static PromptAssembler promptAssembler(int tokenBudget) {
+        return new PromptAssembler(TOKEN_COUNTER, tokenBudget);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.springaimcp.model;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of PromptResponse with realistic MCP payloads, per encoding and field
+ * projection
+ *
+ * Writes to a reused stream, as the HTTP message converters write to the response stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptResponseSerializationBenchmark {
+
+    @Param({"0", "10", "100"})
+    public int mcpItems;
+
+    @Param({"json", "cbor", "smile"})
+    public String encoding;
+
+    /** "all", or a value of the fields query parameter */
+    @Param({"all", "-mcpData", "response"})
+    public String fields;
+
+    private ObjectWriter writer;
+    private PromptResponse response;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (encoding) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        writer = BenchmarkFixtures.objectMapper(factory).writerFor(PromptResponse.class);
+        if (!fields.equals("all")) {
+            SimpleBeanPropertyFilter filter = fields.startsWith("-")
+                    ? SimpleBeanPropertyFilter.serializeAllExcept(fields.substring(1))
+                    : SimpleBeanPropertyFilter.filterOutAllExcept(Set.of(fields.split(",")));
+            writer = writer.with(new SimpleFilterProvider().addFilter(PromptResponse.FIELDS_FILTER, filter));
+        }
+        Map<String, Object> mcpData = mcpItems == 0 ? null : BenchmarkFixtures.mcpResult(mcpItems);
+        response = new PromptResponse(BenchmarkFixtures.promptEndingWith(""), mcpData, mcpData != null);
+        response.setTimings(Map.of("mcp", 120L, "llm", 900L, "total", 910L));
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        out.reset();
+        writer.writeValue(out, response);
+        return out.size();
+    }
+}
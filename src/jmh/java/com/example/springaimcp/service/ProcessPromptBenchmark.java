@@ -0,0 +1,43 @@
+package com.example.springaimcp.service;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.model.PromptResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full processPrompt path against an in-process chat model and MCP WebClient, so only
+ * this service's own overhead is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessPromptBenchmark {
+
+    private AiMcpService service;
+    private PromptRequest gitHubPrompt;
+    private PromptRequest plainPrompt;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkFixtures.aiMcpService(BenchmarkFixtures.stubChatModel(200),
+                BenchmarkFixtures.gitHubMcpClient(BenchmarkFixtures.stubMcpWebClient(BenchmarkFixtures.mcpResponse(10))));
+        gitHubPrompt = new PromptRequest(BenchmarkFixtures.promptEndingWith("List the open issues in this repo."));
+        plainPrompt = new PromptRequest(BenchmarkFixtures.promptEndingWith("Thanks a lot."));
+    }
+
+    @Benchmark
+    public PromptResponse withMcp() {
+        return service.processPrompt(gitHubPrompt);
+    }
+
+    @Benchmark
+    public PromptResponse withoutMcp() {
+        return service.processPrompt(plainPrompt);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springaimcp.service;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import com.example.springaimcp.service.mcp.GitHubIntent;
+import com.example.springaimcp.service.mcp.GitHubIntentClassifier;
+import com.example.springaimcp.service.mcp.McpResultRenderer;
+import com.example.springaimcp.service.prompt.PromptAssembler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt assembly and response enrichment; the small budget forces trimming at 100 MCP items
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptAssemblyBenchmark {
+
+    @Param({"10", "100"})
+    public int mcpItems;
+
+    @Param({"6000", "1000"})
+    public int tokenBudget;
+
+    private AiMcpService service;
+    private PromptAssembler assembler;
+    private String prompt;
+    private String context;
+    private String aiResponse;
+    private Map<String, Object> mcpResult;
+    private String grounding;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkFixtures.aiMcpService(BenchmarkFixtures.stubChatModel(1),
+                BenchmarkFixtures.gitHubMcpClient(BenchmarkFixtures.stubMcpWebClient(Map.of())));
+        assembler = BenchmarkFixtures.promptAssembler(tokenBudget);
+        prompt = BenchmarkFixtures.promptEndingWith("Which repository owns this?");
+        context = BenchmarkFixtures.promptEndingWith("Earlier we looked at the release branch.");
+        aiResponse = BenchmarkFixtures.promptEndingWith("");
+        mcpResult = BenchmarkFixtures.mcpResult(mcpItems);
+        grounding = McpResultRenderer.render(mcpResult);
+    }
+
+    @Benchmark
+    public PromptAssembler.AssembledPrompt assemblePrompt() {
+        return assembler.assemble(prompt, null, null);
+    }
+
+    @Benchmark
+    public PromptAssembler.AssembledPrompt assembleGroundedPrompt() {
+        return assembler.assemble(prompt, context, grounding);
+    }
+
+    @Benchmark
+    public GitHubIntent requiresGitHubTools() {
+        return GitHubIntentClassifier.classify(prompt);
+    }
+
+    @Benchmark
+    public String enhanceResponseWithMcpData() {
+        return service.enhanceResponseWithMcpData(aiResponse, mcpResult);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springaimcp.service.cache;
+
+import com.example.springaimcp.service.embedding.HashingPromptEmbedder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency and recall of the semantic cache's HNSW index against an exact scan, over
+ * embeddings of generated GitHub prompts
+ *
+ * Queries are paraphrases of indexed prompts. Recall@10 against the exact scan is measured once
+ * per trial and printed; a returned neighbour counts if it is at least as similar as the exact
+ * tenth neighbour, so ties between equally similar prompts do not count as misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class HnswIndexBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 1024;
+    private static final String[] ASKS = {"list", "show", "find", "which are the", "summarize the", "count the"};
+    private static final String[] STATES = {"open", "closed", "stale", "recent", "merged", "draft", "urgent", "new"};
+    private static final String[] THINGS = {"issues", "pull requests", "bugs", "releases", "commits", "branches",
+            "contributors", "workflows", "discussions", "tags", "milestones", "reviews"};
+    private static final String[] TOPICS = {"about timeouts", "about memory leaks", "on the login flow",
+            "touching the build", "about flaky tests", "for the payment gateway", "about caching", "on docs",
+            "about retries", "about security", "about performance", "labelled good first issue"};
+
+    @Param({"10000", "100000"})
+    public int entries;
+
+    @Param({"16", "64", "128"})
+    public int efSearch;
+
+    private final HashingPromptEmbedder embedder = new HashingPromptEmbedder(256);
+    private HnswIndex<Integer> index;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        index = new HnswIndex<>(embedder.dimensions(), entries, 16, 100, 42);
+        int[][] prompts = new int[entries][];
+        for (int i = 0; i < entries; i++) {
+            prompts[i] = randomPrompt(random);
+            index.add(embedder.embed(prompt(prompts[i], false)), i);
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = embedder.embed(prompt(prompts[random.nextInt(entries)], true));
+        }
+        System.out.printf("%nrecall@%d with ef %d over %d entries: %.4f%n", K, efSearch, entries, recall());
+    }
+
+    @Benchmark
+    public List<HnswIndex.Neighbor<Integer>> search() {
+        return index.search(nextQuery(), K, efSearch);
+    }
+
+    /**
+     * Exact scan of every vector, the baseline the index replaces
+     */
+    @Benchmark
+    public List<HnswIndex.Neighbor<Integer>> exactScan() {
+        return index.searchExact(nextQuery(), K);
+    }
+
+    /**
+     * A cache lookup as the semantic cache does it: embed the prompt, then search
+     */
+    @Benchmark
+    public List<HnswIndex.Neighbor<Integer>> embedAndSearch() {
+        return index.search(embedder.embed("What open pull requests are there about retries in owner42/repo7?"),
+                K, efSearch);
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    private double recall() {
+        int found = 0;
+        for (float[] query : queries) {
+            List<HnswIndex.Neighbor<Integer>> exact = index.searchExact(query, K);
+            float kth = exact.get(exact.size() - 1).similarity();
+            for (HnswIndex.Neighbor<Integer> neighbor : index.search(query, K, efSearch)) {
+                if (neighbor.similarity() >= kth) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (QUERIES * K);
+    }
+
+    private static int[] randomPrompt(SplittableRandom random) {
+        return new int[]{random.nextInt(ASKS.length), random.nextInt(STATES.length), random.nextInt(THINGS.length),
+                random.nextInt(TOPICS.length), random.nextInt(2000), random.nextInt(50)};
+    }
+
+    /**
+     * The prompt for the chosen words, or a paraphrase of it with the words in another order
+     */
+    private static String prompt(int[] parts, boolean paraphrase) {
+        String repository = "owner" + parts[4] + "/repo" + parts[5];
+        if (paraphrase) {
+            return "What " + THINGS[parts[2]] + " " + TOPICS[parts[3]] + " are " + STATES[parts[1]]
+                    + " in " + repository + "?";
+        }
+        return ASKS[parts[0]] + " the " + STATES[parts[1]] + " " + THINGS[parts[2]] + " " + TOPICS[parts[3]]
+                + " in " + repository;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.springaimcp.service.cache;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads and appends of the disk response cache's segment store, with 100k answers of 2 KB
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentStoreBenchmark {
+
+    private static final int ENTRIES = 100_000;
+
+    private Path directory;
+    private SegmentStore store;
+    private byte[][] keys;
+    private byte[] value;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("segment-store-bench");
+        store = new SegmentStore(directory, 64 << 20, 1L << 30);
+        value = "answer ".repeat(300).getBytes(StandardCharsets.UTF_8);
+        keys = new byte[ENTRIES][];
+        long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        for (int i = 0; i < ENTRIES; i++) {
+            keys[i] = ("gpt-4.1\n0.7\n1000\nWhat is in repository number " + i + "?").getBytes(StandardCharsets.UTF_8);
+            store.put(keys[i], value, expiresAt);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public ByteBuffer get() {
+        return store.get(keys[ThreadLocalRandom.current().nextInt(ENTRIES)]);
+    }
+
+    /**
+     * Decoding the hit to a String, as the response cache does
+     */
+    @Benchmark
+    public String getAndDecode() {
+        return StandardCharsets.UTF_8.decode(store.get(keys[ThreadLocalRandom.current().nextInt(ENTRIES)])).toString();
+    }
+
+    @Benchmark
+    public boolean put() {
+        return store.put(keys[ThreadLocalRandom.current().nextInt(ENTRIES)], value,
+                System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+    }
+
+    /**
+     * Startup index load from the hint files; the previous active segment is sealed on close
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public SegmentStore reopen() throws IOException {
+        store.close();
+        store = new SegmentStore(directory, 64 << 20, 1L << 30);
+        return store;
+    }
+}
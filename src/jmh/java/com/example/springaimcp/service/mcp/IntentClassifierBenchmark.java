@@ -0,0 +1,64 @@
+package com.example.springaimcp.service.mcp;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GitHubIntentClassifier against the keyword scans it replaced, on maximum-length prompts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntentClassifierBenchmark {
+
+    @Param({"none", "repository", "pull_request"})
+    public String shape;
+
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        prompt = BenchmarkFixtures.promptEndingWith(switch (shape) {
+            case "repository" -> "Which repository owns this?";
+            case "pull_request" -> "Summarize the open pull requests.";
+            default -> "Thanks a lot.";
+        });
+    }
+
+    @Benchmark
+    public GitHubIntent classifier() {
+        return GitHubIntentClassifier.classify(prompt);
+    }
+
+    /**
+     * The former AiMcpService.requiresGitHubTools followed by GitHubMcpClient's operation detection
+     */
+    @Benchmark
+    public String legacy() {
+        String lowerPrompt = prompt.toLowerCase();
+        boolean required = lowerPrompt.contains("github") ||
+                lowerPrompt.contains("repository") ||
+                lowerPrompt.contains("repo") ||
+                lowerPrompt.contains("issue") ||
+                lowerPrompt.contains("pull request") ||
+                lowerPrompt.contains("commit") ||
+                lowerPrompt.contains("branch");
+        if (!required) {
+            return null;
+        }
+        String lowerQuery = prompt.toLowerCase();
+        if (lowerQuery.contains("repository") || lowerQuery.contains("repo")) {
+            return "repository";
+        } else if (lowerQuery.contains("issue")) {
+            return "issues";
+        } else if (lowerQuery.contains("pull request") || lowerQuery.contains("pr")) {
+            return "pull_requests";
+        }
+        return "general";
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springaimcp.service.mcp;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the /mcp/github request payload
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpRequestBenchmark {
+
+    private GitHubMcpClient client;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        client = BenchmarkFixtures.gitHubMcpClient(BenchmarkFixtures.stubMcpWebClient(Map.of()));
+        query = BenchmarkFixtures.promptEndingWith("List the open issues in this repo.");
+    }
+
+    @Benchmark
+    public Map<String, Object> buildMcpRequest() {
+        return client.buildMcpRequest(query, GitHubIntentClassifier.classify(query).operation());
+    }
+}
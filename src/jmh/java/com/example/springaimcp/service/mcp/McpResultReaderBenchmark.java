@@ -0,0 +1,73 @@
+package com.example.springaimcp.service.mcp;
+
+import com.example.springaimcp.BenchmarkFixtures;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a /mcp/github response body: the typed streaming reader against decoding the whole
+ * body into a Map, as bodyToMono(Map.class) did. Run with -PjmhProfilers=gc to compare
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpResultReaderBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    /** Network-sized chunks the body arrives in */
+    private static final int CHUNK_BYTES = 8192;
+
+    @Param({"10", "1000"})
+    public int items;
+
+    private McpResultReader reader;
+    private byte[] body;
+    private List<byte[]> chunks;
+
+    @Setup
+    public void setUp() throws IOException {
+        reader = BenchmarkFixtures.mcpResultReader(10, 100);
+        body = BenchmarkFixtures.OBJECT_MAPPER.writeValueAsBytes(BenchmarkFixtures.mcpResponse(items));
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += CHUNK_BYTES) {
+            chunks.add(Arrays.copyOfRange(body, offset, Math.min(body.length, offset + CHUNK_BYTES)));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeToMap() throws IOException {
+        return BenchmarkFixtures.OBJECT_MAPPER.readValue(body, MAP_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> readTyped() {
+        return reader.read(body(), "general").block();
+    }
+
+    /**
+     * Stops reading once the repository list holds max_results items
+     */
+    @Benchmark
+    public Map<String, Object> readTypedRepositories() {
+        return reader.read(body(), "repository").block();
+    }
+
+    private Flux<DataBuffer> body() {
+        return Flux.fromIterable(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+}
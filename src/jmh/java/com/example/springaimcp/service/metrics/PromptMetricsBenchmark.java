@@ -0,0 +1,59 @@
+package com.example.springaimcp.service.metrics;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path cost of the prompt metrics against the Prometheus registry used in production
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptMetricsBenchmark {
+
+    private PromptMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = new PromptMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public void recordStage() {
+        metrics.recordStage(PromptMetrics.Stage.LLM, 1_250_000L);
+    }
+
+    @Benchmark
+    public void recordMcpCall() {
+        metrics.recordMcpCall("issues", "success");
+    }
+
+    /**
+     * Everything one prompt with MCP records: five stage timers, tokens and one MCP outcome
+     */
+    @Benchmark
+    public void recordPrompt() {
+        metrics.recordStage(PromptMetrics.Stage.PROMPT_BUILD, 4_000L);
+        metrics.recordStageMillis(PromptMetrics.Stage.MCP, 120L);
+        metrics.recordStageMillis(PromptMetrics.Stage.LLM, 900L);
+        metrics.recordStage(PromptMetrics.Stage.ENRICH, 8_000L);
+        metrics.recordStage(PromptMetrics.Stage.TOTAL, 910_000_000L);
+        metrics.recordTokens(600, 250, true);
+        metrics.recordMcpCall("issues", "success");
+    }
+
+    /**
+     * Instrumentation cost on a reactive pipeline of one element
+     */
+    @Benchmark
+    public Integer trackInFlight() {
+        return metrics.trackInFlight(Mono.just(1)).block();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.springaimcp.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal latency distribution described by its median and 99th percentile
+ *
+ * Service latencies are right-skewed with a long tail, which a log-normal captures with two
+ * intuitive parameters. A p99 equal to the median gives a constant latency.
+ */
+public record LatencyDistribution(double medianMillis, double p99Millis) {
+
+    /** z-score of the 99th percentile of the standard normal distribution */
+    private static final double Z_99 = 2.3263;
+
+    public LatencyDistribution {
+        if (medianMillis < 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("Expected 0 <= median <= p99, got " + medianMillis + " and " + p99Millis);
+        }
+    }
+
+    /**
+     * Parse "median,p99" in milliseconds, e.g. "40,400"
+     */
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Latency must be given as median,p99 in milliseconds: " + spec);
+        }
+        return new LatencyDistribution(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+    }
+
+    public long sampleMillis() {
+        if (medianMillis == 0 || p99Millis == medianMillis) {
+            return Math.round(medianMillis);
+        }
+        double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(medianMillis * Math.exp(sigma * gaussian));
+    }
+
+    @Override
+    public String toString() {
+        return "median " + medianMillis + "ms, p99 " + p99Millis + "ms";
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.springaimcp.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples in microseconds and reports percentiles
+ *
+ * Samples are kept exactly rather than bucketed, which is affordable for the run lengths a
+ * single-box load test produces and keeps the extreme percentiles exact.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+    private int count;
+
+    synchronized void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted);
+    }
+
+    record Snapshot(long[] sorted) {
+
+        int count() {
+            return sorted.length;
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds
+         */
+        double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1000.0;
+        }
+
+        double maxMillis() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0;
+        }
+    }
+}
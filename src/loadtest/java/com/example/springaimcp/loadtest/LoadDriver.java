@@ -0,0 +1,244 @@
+package com.example.springaimcp.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load driver for the prompt API
+ *
+ * Requests are sent at Poisson-distributed arrival times for the target rate, whether or not
+ * earlier requests have completed, and latency is measured from the scheduled send time, so a
+ * slow server cannot hold the load back (no coordinated omission). Unless --target points at a
+ * running application, the driver starts the stub OpenAI and MCP servers and launches the
+ * application against them from --app-classpath.
+ */
+public final class LoadDriver {
+
+    private static final List<String> PROMPTS = List.of(
+            "Tell me about Spring AI framework",
+            "Show me the open issues in spring-projects/spring-ai",
+            "Summarize the recent pull requests in my repository",
+            "What is the difference between a branch and a tag?",
+            "Which of my repositories has the most stars?");
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadDriver(LoadTestOptions options, ExecutorService executor) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            if (options.target() != null) {
+                new LoadDriver(options, executor).run(options.target());
+                return;
+            }
+            try (StubOpenAiServer openAi = options.openAiServer(); StubMcpServer mcp = options.mcpServer()) {
+                openAi.start();
+                mcp.start();
+                Process app = launchApplication(options, openAi, mcp);
+                try {
+                    new LoadDriver(options, executor).run("http://127.0.0.1:" + options.appPort());
+                } finally {
+                    app.destroy();
+                    if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                        app.destroyForcibly();
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Launch the application against the stub servers, from --app-jar when given, with its
+     * directory as working directory so relative paths such as a CDS archive resolve, or else
+     * from --app-classpath
+     */
+    static Process launchApplication(LoadTestOptions options, StubOpenAiServer openAi, StubMcpServer mcp)
+            throws IOException {
+        if (options.appClasspath() == null && options.appJar() == null) {
+            throw new IllegalArgumentException("Either --target, --app-jar or --app-classpath is required");
+        }
+        Path log = Path.of(options.appLog()).toAbsolutePath();
+        Files.createDirectories(log.getParent());
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.jvmArgs());
+        File workingDirectory = null;
+        if (options.appJar() != null) {
+            File jar = new File(options.appJar()).getAbsoluteFile();
+            workingDirectory = jar.getParentFile();
+            command.add("-jar");
+            command.add(jar.getName());
+        } else {
+            command.add("-cp");
+            command.add(options.appClasspath());
+            command.add("com.example.springaimcp.SpringAiMcpApplication");
+        }
+        command.add("--server.port=" + options.appPort());
+        command.add("--spring.ai.openai.base-url=" + openAi.baseUrl());
+        command.add("--spring.ai.openai.api-key=stub");
+        command.add("--app.github.mcp.server.url=" + mcp.baseUrl());
+        // All load comes from one address, which a per-client quota would throttle
+        command.add("--app.admission.quota.enabled=false");
+        command.add("--logging.level.org.springframework.ai=WARN");
+        command.add("--logging.level.org.springframework.web.reactive=WARN");
+
+        System.out.printf("Starting application on port %d, logging to %s%n", options.appPort(), log);
+        return new ProcessBuilder(command)
+                .directory(workingDirectory)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private void run(String target) throws Exception {
+        awaitHealthy(target);
+
+        URI uri = URI.create(target + options.endpoint());
+        long warmupNanos = options.warmup().toNanos();
+        long durationNanos = warmupNanos + options.duration().toNanos();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        System.out.printf("Sending %.1f req/s to %s for %ds after a %ds warm-up%n",
+                options.rate(), uri, options.duration().toSeconds(), options.warmup().toSeconds());
+
+        AtomicLong sequence = new AtomicLong();
+        long startNanos = System.nanoTime();
+        long scheduledNanos = startNanos;
+        while (scheduledNanos - startNanos < durationNanos) {
+            long waitNanos = scheduledNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            boolean measured = scheduledNanos - startNanos >= warmupNanos;
+            send(uri, sequence.getAndIncrement(), scheduledNanos, measured);
+            // Exponential inter-arrival times give a Poisson arrival process
+            scheduledNanos += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+        }
+
+        long deadline = System.nanoTime() + options.requestTimeout().toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        report();
+    }
+
+    private void send(URI uri, long sequence, long scheduledNanos, boolean measured) {
+        if (outstanding.get() >= options.maxOutstanding()) {
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        if (measured) {
+            sent.increment();
+        }
+        outstanding.incrementAndGet();
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(options.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(sequence)))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    outstanding.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        failures.computeIfAbsent(cause.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                    } else if (response.statusCode() / 100 != 2) {
+                        failures.computeIfAbsent("HTTP " + response.statusCode(), k -> new LongAdder()).increment();
+                    } else {
+                        succeeded.increment();
+                    }
+                });
+    }
+
+    private String body(long sequence) {
+        String prompt = PROMPTS.get((int) (sequence % PROMPTS.size()));
+        return "{\"prompt\":\"" + prompt + "\",\"enableMcpTools\":true,\"bypassCache\":" + options.bypassCache() + "}";
+    }
+
+    private void awaitHealthy(String target) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(target + "/api/v1/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+        throw new IllegalStateException("Application at " + target + " did not become healthy; see "
+                + new File(options.appLog()).getAbsolutePath());
+    }
+
+    private void report() {
+        LatencyRecorder.Snapshot snapshot = latencies.snapshot();
+        long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        double seconds = options.duration().toNanos() / 1e9;
+
+        System.out.println();
+        System.out.printf("Requests:   %d sent, %d succeeded, %d failed, %d dropped at the outstanding limit, %d unfinished%n",
+                sent.sum(), succeeded.sum(), failed, dropped.sum(), sent.sum() - snapshot.count());
+        System.out.printf("Throughput: %.1f req/s offered, %.1f req/s succeeded%n",
+                sent.sum() / seconds, succeeded.sum() / seconds);
+        System.out.printf("Latency:    p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                snapshot.percentileMillis(50), snapshot.percentileMillis(95), snapshot.percentileMillis(99),
+                snapshot.percentileMillis(99.9), snapshot.maxMillis());
+        if (!failures.isEmpty()) {
+            Map<String, Long> byCause = new TreeMap<>();
+            failures.forEach((cause, count) -> byCause.put(cause, count.sum()));
+            System.out.println("Failures:   " + byCause);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.springaimcp.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of the load driver and stub servers, given as --name=value
+ */
+record LoadTestOptions(double rate,
+                       Duration duration,
+                       Duration warmup,
+                       String endpoint,
+                       String target,
+                       int appPort,
+                       String appClasspath,
+                       String appJar,
+                       List<String> jvmArgs,
+                       String appLog,
+                       int openAiPort,
+                       LatencyDistribution llmLatency,
+                       int llmTokens,
+                       long llmInterTokenMillis,
+                       double llmErrorRate,
+                       int mcpPort,
+                       LatencyDistribution mcpLatency,
+                       double mcpErrorRate,
+                       int mcpRepositories,
+                       Duration requestTimeout,
+                       boolean bypassCache,
+                       int maxOutstanding,
+                       int runs) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "50")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                values.getOrDefault("endpoint", "/api/v1/prompt"),
+                values.get("target"),
+                Integer.parseInt(values.getOrDefault("app-port", "18080")),
+                values.get("app-classpath"),
+                values.get("app-jar"),
+                list(values.getOrDefault("jvm-args", "")),
+                values.getOrDefault("app-log", "build/loadtest/app.log"),
+                Integer.parseInt(values.getOrDefault("openai-port", "18089")),
+                LatencyDistribution.parse(values.getOrDefault("llm-latency", "400,2000")),
+                Integer.parseInt(values.getOrDefault("llm-tokens", "50")),
+                Long.parseLong(values.getOrDefault("llm-inter-token-ms", "10")),
+                Double.parseDouble(values.getOrDefault("llm-error-rate", "0")),
+                Integer.parseInt(values.getOrDefault("mcp-port", "13000")),
+                LatencyDistribution.parse(values.getOrDefault("mcp-latency", "40,400")),
+                Double.parseDouble(values.getOrDefault("mcp-error-rate", "0")),
+                Integer.parseInt(values.getOrDefault("mcp-repositories", "10")),
+                duration(values.getOrDefault("timeout", "120s")),
+                Boolean.parseBoolean(values.getOrDefault("bypass-cache", "true")),
+                Integer.parseInt(values.getOrDefault("max-outstanding", "10000")),
+                Integer.parseInt(values.getOrDefault("runs", "5")));
+        if (options.rate() <= 0) {
+            throw new IllegalArgumentException("Rate must be positive, got " + options.rate());
+        }
+        return options;
+    }
+
+    /**
+     * Split a comma-separated list, such as JVM options
+     */
+    static List<String> list(String text) {
+        return Arrays.stream(text.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    /**
+     * Parse durations such as 500ms, 30s or 2m
+     */
+    static Duration duration(String text) {
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + text);
+        };
+    }
+
+    StubOpenAiServer openAiServer() throws java.io.IOException {
+        return new StubOpenAiServer(openAiPort, llmLatency, llmErrorRate, llmTokens, llmInterTokenMillis);
+    }
+
+    StubMcpServer mcpServer() throws java.io.IOException {
+        return new StubMcpServer(mcpPort, mcpLatency, mcpErrorRate, mcpRepositories);
+    }
+}
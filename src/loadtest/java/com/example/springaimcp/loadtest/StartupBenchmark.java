@@ -0,0 +1,128 @@
+package com.example.springaimcp.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup-time benchmark of the application
+ *
+ * Starts the stub OpenAI and MCP servers, then launches the application --runs times, one
+ * after the other, and measures from launching the JVM to the first successful POST to the
+ * prompt API, polling every 10 ms. The time until /actuator/health/readiness reports UP is
+ * reported alongside. Compare builds and JVM options with --app-jar and --jvm-args, for
+ * instance a CDS archive: --app-jar=build/cds/app.jar --jvm-args=-XX:SharedArchiveFile=app.jsa
+ */
+public final class StartupBenchmark {
+
+    private static final long POLL_MILLIS = 10;
+    private static final long MAX_STARTUP_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final LoadTestOptions options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private StartupBenchmark(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (StubOpenAiServer openAi = options.openAiServer(); StubMcpServer mcp = options.mcpServer()) {
+            openAi.start();
+            mcp.start();
+            new StartupBenchmark(options).run(openAi, mcp);
+        }
+    }
+
+    private void run(StubOpenAiServer openAi, StubMcpServer mcp) throws Exception {
+        List<Long> firstRequest = new ArrayList<>();
+        List<Long> ready = new ArrayList<>();
+        for (int run = 1; run <= options.runs(); run++) {
+            long startNanos = System.nanoTime();
+            Process app = LoadDriver.launchApplication(options, openAi, mcp);
+            try {
+                long[] times = measure(app, startNanos);
+                firstRequest.add(times[0]);
+                ready.add(times[1]);
+                System.out.printf("Run %d: first successful request after %d ms, ready after %d ms%n",
+                        run, times[0], times[1]);
+            } finally {
+                app.destroy();
+                if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                    app.destroyForcibly().waitFor();
+                }
+            }
+        }
+        System.out.println();
+        System.out.printf("Time to first successful request: median %d ms, min %d ms, max %d ms over %d runs%n",
+                median(firstRequest), firstRequest.stream().mapToLong(Long::longValue).min().orElse(0),
+                firstRequest.stream().mapToLong(Long::longValue).max().orElse(0), firstRequest.size());
+        System.out.printf("Time to readiness UP:             median %d ms%n", median(ready));
+    }
+
+    /**
+     * Poll until a prompt succeeds and readiness is UP
+     *
+     * @return milliseconds from launch to the first successful prompt and to readiness UP
+     */
+    private long[] measure(Process app, long startNanos) throws InterruptedException {
+        String target = "http://127.0.0.1:" + options.appPort();
+        HttpRequest prompt = HttpRequest.newBuilder(URI.create(target + options.endpoint()))
+                .timeout(options.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"prompt\":\"Show me the open issues in spring-projects/spring-ai\",\"bypassCache\":true}"))
+                .build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(target + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+
+        long firstRequestMillis = -1;
+        long readyMillis = -1;
+        while (firstRequestMillis < 0 || readyMillis < 0) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("Application exited with " + app.exitValue() + "; see "
+                        + options.appLog());
+            }
+            if (firstRequestMillis < 0 && succeeds(prompt)) {
+                firstRequestMillis = elapsedMillis(startNanos);
+            }
+            if (readyMillis < 0 && succeeds(readiness)) {
+                readyMillis = elapsedMillis(startNanos);
+            }
+            if (elapsedMillis(startNanos) > MAX_STARTUP_MILLIS) {
+                throw new IllegalStateException("Application did not serve a prompt within "
+                        + MAX_STARTUP_MILLIS + " ms; see " + options.appLog());
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+        return new long[] {firstRequestMillis, readyMillis};
+    }
+
+    private boolean succeeds(HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+        } catch (IOException e) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2);
+    }
+}
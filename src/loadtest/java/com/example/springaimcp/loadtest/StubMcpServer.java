@@ -0,0 +1,50 @@
+package com.example.springaimcp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Stub of the GitHub MCP server: POST /mcp/github, GET /mcp/tools and POST /mcp/tools/call
+ *
+ * Query and tool call results are a canned payload with the given number of repositories.
+ * The tool catalog is answered without injected latency or errors, so that it loads at startup.
+ */
+public class StubMcpServer extends StubServer {
+
+    private static final String TOOLS = """
+            [{"name":"github_repository","description":"Get repository information",\
+            "inputSchema":{"type":"object","properties":{"owner":{"type":"string"},"repo":{"type":"string"}}}},\
+            {"name":"github_issues","description":"List open issues of a repository",\
+            "inputSchema":{"type":"object","properties":{"owner":{"type":"string"},"repo":{"type":"string"}}}}]""";
+
+    private final String result;
+
+    public StubMcpServer(int port, LatencyDistribution latency, double errorRate, int repositories) throws IOException {
+        super(port, latency, errorRate);
+        this.result = result(repositories);
+        server().createContext("/mcp/github", this::handleResult);
+        server().createContext("/mcp/tools/call", this::handleResult);
+        server().createContext("/mcp/tools", exchange -> sendJson(exchange, 200, TOOLS));
+    }
+
+    private void handleResult(HttpExchange exchange) throws IOException {
+        readBody(exchange);
+        if (simulate(exchange)) {
+            return;
+        }
+        sendJson(exchange, 200, result);
+    }
+
+    private static String result(int repositories) {
+        StringBuilder json = new StringBuilder("{\"status\":\"success\",\"repositories\":[");
+        for (int i = 0; i < repositories; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"repo-").append(i).append("\",\"stars\":").append(i * 7)
+                    .append(",\"description\":\"Stub repository ").append(i).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+}
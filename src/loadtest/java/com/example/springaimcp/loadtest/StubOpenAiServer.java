@@ -0,0 +1,85 @@
+package com.example.springaimcp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Stub of the OpenAI chat completions API, for pointing {@code spring.ai.openai.base-url} at
+ *
+ * Answers POST /v1/chat/completions with a canned completion of a fixed number of tokens. The
+ * latency distribution is the time to the first token; streamed requests then get one SSE chunk
+ * per token with a fixed inter-token delay, non-streamed requests wait for all tokens.
+ */
+public class StubOpenAiServer extends StubServer {
+
+    private static final Pattern STREAM_REQUESTED = Pattern.compile("\"stream\"\\s*:\\s*true");
+
+    private final int completionTokens;
+    private final long interTokenMillis;
+
+    public StubOpenAiServer(int port, LatencyDistribution latency, double errorRate,
+                            int completionTokens, long interTokenMillis) throws IOException {
+        super(port, latency, errorRate);
+        this.completionTokens = completionTokens;
+        this.interTokenMillis = interTokenMillis;
+        server().createContext("/v1/chat/completions", this::handleCompletion);
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        String request = readBody(exchange);
+        if (simulate(exchange)) {
+            return;
+        }
+        if (STREAM_REQUESTED.matcher(request).find()) {
+            streamCompletion(exchange);
+        } else {
+            pause(interTokenMillis * completionTokens);
+            sendJson(exchange, 200, completion(request.length() / 4));
+        }
+    }
+
+    private void streamCompletion(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < completionTokens; i++) {
+                if (i > 0) {
+                    pause(interTokenMillis);
+                }
+                writeEvent(out, chunk("{\"role\":\"assistant\",\"content\":" + quote(token(i)) + "}", null));
+            }
+            writeEvent(out, chunk("{}", "\"stop\""));
+            writeEvent(out, "[DONE]");
+        }
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String chunk(String delta, String finishReason) {
+        return "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":0,\"model\":\"gpt-4.1\","
+                + "\"choices\":[{\"index\":0,\"delta\":" + delta + ",\"finish_reason\":" + finishReason + "}]}";
+    }
+
+    private String completion(int promptTokens) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < completionTokens; i++) {
+            content.append(token(i));
+        }
+        return "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion\",\"created\":0,\"model\":\"gpt-4.1\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":" + quote(content.toString())
+                + "},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":" + promptTokens + ",\"completion_tokens\":" + completionTokens
+                + ",\"total_tokens\":" + (promptTokens + completionTokens) + "}}";
+    }
+
+    private static String token(int index) {
+        return index == 0 ? "Stub" : " token" + index;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springaimcp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the embedded stub servers: a JDK HTTP server with injected latency and errors
+ */
+abstract class StubServer implements AutoCloseable {
+
+    protected final LatencyDistribution latency;
+    protected final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    protected StubServer(int port, LatencyDistribution latency, double errorRate) throws IOException {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1, got " + errorRate);
+        }
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        // Handlers sleep to simulate latency, so every in-flight request needs its own thread
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+    }
+
+    protected HttpServer server() {
+        return server;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sleep for a sampled latency, then answer 500 with the configured probability
+     *
+     * @return true if the request was failed and no further response must be written
+     */
+    protected boolean simulate(HttpExchange exchange) throws IOException {
+        pause(latency.sampleMillis());
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            sendJson(exchange, 500, "{\"error\":{\"message\":\"Injected stub failure\",\"type\":\"server_error\"}}");
+            return true;
+        }
+        return false;
+    }
+
+    protected static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    protected static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    protected static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                default -> quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springaimcp.loadtest;
+
+/**
+ * Run the stub OpenAI and MCP servers on their own, for load tests against a separately started application
+ */
+public final class StubServers {
+
+    private StubServers() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (StubOpenAiServer openAi = options.openAiServer(); StubMcpServer mcp = options.mcpServer()) {
+            openAi.start();
+            mcp.start();
+            System.out.printf("Stub OpenAI API on %s (first token %s, %d tokens, error rate %.3f)%n",
+                    openAi.baseUrl(), options.llmLatency(), options.llmTokens(), options.llmErrorRate());
+            System.out.printf("Stub MCP server on %s (%s, error rate %.3f)%n",
+                    mcp.baseUrl(), options.mcpLatency(), options.mcpErrorRate());
+            System.out.printf("Start the application with --spring.ai.openai.base-url=%s --spring.ai.openai.api-key=stub "
+                    + "--app.github.mcp.server.url=%s%n", openAi.baseUrl(), mcp.baseUrl());
+            Thread.currentThread().join();
+        }
+    }
+}
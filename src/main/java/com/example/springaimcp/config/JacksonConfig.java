@@ -0,0 +1,22 @@
+package com.example.springaimcp.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson configuration shared by every ObjectMapper Spring builds, JSON and binary alike
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Property filters resolve to "write all fields" unless a request sets one, see
+     * {@link com.example.springaimcp.model.PromptResponse#FIELDS_FILTER}
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer propertyFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.springaimcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpenAI-compatible LLM backends and how requests are routed between them (app.ai.routing)
+ *
+ * With no backends listed, the single backend at spring.ai.openai.base-url is used.
+ */
+@ConfigurationProperties("app.ai.routing")
+public class LlmRoutingProperties {
+
+    private List<Backend> backends = new ArrayList<>();
+    private Duration firstTokenTimeout = Duration.ofSeconds(10);
+    private Duration cooldown = Duration.ofSeconds(30);
+    private double latencySmoothing = 0.2;
+    private double errorPenalty = 4.0;
+    private double explorationRate = 0.05;
+
+    public List<Backend> getBackends() {
+        return backends;
+    }
+
+    public void setBackends(List<Backend> backends) {
+        this.backends = backends;
+    }
+
+    /**
+     * Time a streamed completion may take to its first chunk before the next backend is tried
+     */
+    public Duration getFirstTokenTimeout() {
+        return firstTokenTimeout;
+    }
+
+    public void setFirstTokenTimeout(Duration firstTokenTimeout) {
+        this.firstTokenTimeout = firstTokenTimeout;
+    }
+
+    /**
+     * Time a backend is passed over after it answered 429 or could not be reached
+     */
+    public Duration getCooldown() {
+        return cooldown;
+    }
+
+    public void setCooldown(Duration cooldown) {
+        this.cooldown = cooldown;
+    }
+
+    /**
+     * Weight of the latest sample in the moving averages of latency and error rate
+     */
+    public double getLatencySmoothing() {
+        return latencySmoothing;
+    }
+
+    public void setLatencySmoothing(double latencySmoothing) {
+        this.latencySmoothing = latencySmoothing;
+    }
+
+    /**
+     * How strongly the error rate inflates a backend's latency score
+     */
+    public double getErrorPenalty() {
+        return errorPenalty;
+    }
+
+    public void setErrorPenalty(double errorPenalty) {
+        this.errorPenalty = errorPenalty;
+    }
+
+    /**
+     * Share of requests sent to a random backend first, so the latency of the others stays current
+     */
+    public double getExplorationRate() {
+        return explorationRate;
+    }
+
+    public void setExplorationRate(double explorationRate) {
+        this.explorationRate = explorationRate;
+    }
+
+    /**
+     * One OpenAI-compatible endpoint, such as a region, a deployment or a local model server
+     */
+    public static class Backend {
+
+        private String name;
+        private String baseUrl;
+        private String apiKey;
+        private Map<String, String> models = new LinkedHashMap<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        /**
+         * Model names as this backend knows them, keyed by the requested model; unmapped models pass through
+         */
+        public Map<String, String> getModels() {
+            return models;
+        }
+
+        public void setModels(Map<String, String> models) {
+            this.models = models;
+        }
+
+        @Override
+        public String toString() {
+            return "Backend{" +
+                    "name='" + name + '\'' +
+                    ", baseUrl='" + baseUrl + '\'' +
+                    ", models=" + models +
+                    '}';
+        }
+    }
+}
@@ -1,53 +1,57 @@
 package com.example.springaimcp.config;
 
-import org.springframework.ai.openai.OpenAiChatModel;
-import org.springframework.ai.openai.api.OpenAiApi;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.springaimcp.service.job.PublicAddressResolverGroup;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
 
 /**
  * Configuration class for Spring AI and related components
+ *
+ * The chat model is the {@link com.example.springaimcp.service.llm.RoutingChatModel} over the
+ * backends in {@link LlmRoutingProperties}. The WebClients are lazy and built on first use,
+ * so their HTTP connectors do not add to startup time.
  */
 @Configuration
+@EnableConfigurationProperties(LlmRoutingProperties.class)
 public class SpringAiConfig {
 
-    @Value("${spring.ai.openai.api-key}")
-    private String openAiApiKey;
-
-    @Value("${spring.ai.openai.base-url:https://api.openai.com}")
-    private String openAiBaseUrl;
-
-    @Value("${app.github.mcp.server.url:http://localhost:3000}")
-    private String mcpServerUrl;
-
     /**
-     * Configure OpenAI Chat Model for LLM interactions
-     */
-    @Bean
-    public OpenAiChatModel openAiChatModel() {
-        var openAiApi = new OpenAiApi(openAiBaseUrl, openAiApiKey);
-        return new OpenAiChatModel(openAiApi);
-    }
-
-    /**
-     * WebClient for GitHub MCP server communication
+     * WebClient for GitHub MCP server communication, mutated with the base URL of each server replica
      */
     @Bean("mcpWebClient")
+    @Lazy
     public WebClient mcpWebClient() {
         return WebClient.builder()
-                .baseUrl(mcpServerUrl)
                 .defaultHeader("Content-Type", "application/json")
                 .defaultHeader("Accept", "application/json")
                 .build();
     }
 
     /**
-     * General purpose WebClient
+     * General purpose WebClient, built from Boot's builder so that its JSON codecs use the
+     * application's ObjectMapper, property filters included
      */
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    @Lazy
+    public WebClient webClient(WebClient.Builder builder) {
+        return builder.build();
+    }
+
+    /**
+     * WebClient for requests to client-supplied URLs such as job callbacks, whose connections
+     * can only go to public addresses
+     */
+    @Bean("publicWebClient")
+    @Lazy
+    public WebClient publicWebClient(WebClient.Builder builder) {
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(
+                        HttpClient.create().resolver(PublicAddressResolverGroup.INSTANCE)))
+                .build();
     }
 }
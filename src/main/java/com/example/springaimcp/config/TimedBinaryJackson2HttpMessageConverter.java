@@ -0,0 +1,45 @@
+package com.example.springaimcp.config;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter for a binary encoding such as CBOR or Smile, timed like
+ * {@link TimedJackson2HttpMessageConverter}
+ *
+ * Binary encodings skip number and string formatting and are smaller on the wire, which makes
+ * them cheaper to parse for clients that support them.
+ */
+class TimedBinaryJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    private final PromptMetrics metrics;
+
+    /**
+     * @param objectMapper mapper over the binary format's JsonFactory
+     * @param mediaType    the format's media type, e.g. application/cbor
+     */
+    TimedBinaryJackson2HttpMessageConverter(ObjectMapper objectMapper, MediaType mediaType, PromptMetrics metrics) {
+        super(objectMapper, mediaType);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!TimedJackson2HttpMessageConverter.isPromptResponse(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            metrics.recordStage(PromptMetrics.Stage.SERIALIZATION, System.nanoTime() - startNanos);
+        }
+    }
+}
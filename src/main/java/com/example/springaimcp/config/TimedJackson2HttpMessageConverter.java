@@ -0,0 +1,48 @@
+package com.example.springaimcp.config;
+
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that records the serialization stage of prompt responses
+ *
+ * The measured time includes writing to the response stream, since Jackson writes directly to it.
+ */
+class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final PromptMetrics metrics;
+
+    TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, PromptMetrics metrics) {
+        super(objectMapper);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!isPromptResponse(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            metrics.recordStage(PromptMetrics.Stage.SERIALIZATION, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Whether the body is a prompt response, possibly wrapped with the filters of a field projection
+     */
+    static boolean isPromptResponse(Object object) {
+        Object value = object instanceof MappingJacksonValue container ? container.getValue() : object;
+        return value instanceof PromptResponse;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springaimcp.config;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Spring MVC configuration
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final PromptMetrics metrics;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public WebConfig(PromptMetrics metrics, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.metrics = metrics;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * Swap the Jackson converters for ones that time prompt response serialization
+     *
+     * JSON stays the default; clients sending Accept: application/cbor or
+     * application/x-jackson-smile get the binary encoding. The binary converters use the same
+     * Jackson configuration as the JSON one, rather than the defaults Spring MVC builds them with.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        int firstJson = -1;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jackson) {
+                converters.set(i, new TimedJackson2HttpMessageConverter(jackson.getObjectMapper(), metrics));
+                firstJson = firstJson < 0 ? i : firstJson;
+            }
+        }
+        int binaryIndex = firstJson < 0 ? converters.size() : firstJson + 1;
+        converters.add(binaryIndex, new TimedBinaryJackson2HttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build(), MediaType.APPLICATION_CBOR, metrics));
+        converters.add(binaryIndex + 1, new TimedBinaryJackson2HttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build(), SMILE, metrics));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springaimcp.controller;
+
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.admission.AdmissionRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps prompts rejected by admission control to 429 Too Many Requests with a Retry-After header
+ */
+@RestControllerAdvice(assignableTypes = {PromptController.class, PromptJobController.class,
+        ReactivePromptController.class})
+public class AdmissionExceptionHandler {
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<PromptResponse> handleRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(new PromptResponse(e.getMessage(), null, false, "rejected"));
+    }
+}
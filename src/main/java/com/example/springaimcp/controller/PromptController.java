@@ -1,14 +1,36 @@
 package com.example.springaimcp.controller;
 
+import com.example.springaimcp.model.BatchItemResult;
 import com.example.springaimcp.model.PromptRequest;
 import com.example.springaimcp.model.PromptResponse;
 import com.example.springaimcp.service.AiMcpService;
+import com.example.springaimcp.service.BatchPromptService;
+import com.example.springaimcp.service.admission.AdaptiveConcurrencyLimiter;
+import com.example.springaimcp.service.admission.AdmissionControl;
+import com.example.springaimcp.service.admission.AdmissionRejectedException;
+import com.example.springaimcp.service.llm.RoutingChatModel;
+import com.example.springaimcp.service.mcp.McpToolCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for handling AI prompts with GitHub MCP integration
@@ -21,30 +43,144 @@ public class PromptController {
     private static final Logger logger = LoggerFactory.getLogger(PromptController.class);
 
     private final AiMcpService aiMcpService;
+    private final BatchPromptService batchPromptService;
+    private final ObjectMapper objectMapper;
+    private final AdmissionControl admissionControl;
+    private final RoutingChatModel routingChatModel;
 
     @Autowired
-    public PromptController(AiMcpService aiMcpService) {
+    public PromptController(AiMcpService aiMcpService, BatchPromptService batchPromptService,
+                            ObjectMapper objectMapper, AdmissionControl admissionControl,
+                            RoutingChatModel routingChatModel) {
         this.aiMcpService = aiMcpService;
+        this.batchPromptService = batchPromptService;
+        this.objectMapper = objectMapper;
+        this.admissionControl = admissionControl;
+        this.routingChatModel = routingChatModel;
     }
 
     /**
      * Process a prompt using Spring AI with GitHub MCP server integration
      * 
      * @param request The prompt request containing user input
-     * @return PromptResponse with AI-generated response and MCP tool usage
+     * @param apiKey  Optional client API key, used as the quota key
+     * @return PromptResponse with AI-generated response and MCP tool usage, or 429 when admission control rejects it
      */
     @PostMapping("/prompt")
-    public ResponseEntity<PromptResponse> processPrompt(@Valid @RequestBody PromptRequest request) {
-        logger.info("Processing prompt: {}", request.getPrompt());
-        
+    public ResponseEntity<PromptResponse> processPrompt(@Valid @RequestBody PromptRequest request,
+                                                        @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                        HttpServletRequest servletRequest) {
+        logger.debug("Processing prompt: {}", request.getPrompt());
+
+        AdaptiveConcurrencyLimiter.Permit permit = admissionControl.admit(
+                admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+        boolean succeeded = false;
         try {
             PromptResponse response = aiMcpService.processPrompt(request);
-            logger.info("Prompt processed successfully");
+            succeeded = true;
+            logger.debug("Prompt processed successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error processing prompt: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(new PromptResponse("Error processing prompt: " + e.getMessage(), null, false));
+        } finally {
+            permit.release(succeeded);
+        }
+    }
+
+    /**
+     * Stream a prompt answer as Server-Sent Events
+     *
+     * Streams hold their admission slot until they end but do not feed the latency-based limit,
+     * whose samples would otherwise be dominated by answer length.
+     *
+     * @param request The prompt request containing user input
+     * @param apiKey  Optional client API key, used as the quota key
+     * @return "token" events as the LLM produces them, then the "mcp" enrichment and a "done" event;
+     *         429 without a body when admission control rejects the prompt
+     */
+    @PostMapping(value = "/prompt/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<String>>> streamPrompt(@Valid @RequestBody PromptRequest request,
+                                                                      @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                                      HttpServletRequest servletRequest) {
+        logger.debug("Streaming prompt: {}", request.getPrompt());
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = admissionControl.admit(admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+        } catch (AdmissionRejectedException e) {
+            // No body: an error payload could not be rendered as an event stream before the stream starts
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .build();
+        }
+
+        return ResponseEntity.ok(aiMcpService.streamPrompt(request)
+                .doFinally(signal -> permit.releaseUnmeasured())
+                .onErrorResume(e -> {
+                    logger.error("Error streaming prompt: {}", e.getMessage(), e);
+                    return Flux.just(ServerSentEvent.builder("Error processing prompt: " + e.getMessage())
+                            .event("error")
+                            .build());
+                }));
+    }
+
+    /**
+     * Process a JSON array of prompts with bounded parallelism
+     *
+     * The batch counts as one request against the client's quota.
+     *
+     * @param requests The prompt requests
+     * @param apiKey   Optional client API key, used as the quota key
+     * @return NDJSON stream with one result per request, in completion order; 429 without a body when
+     *         the client is over quota
+     */
+    @PostMapping(value = "/prompts/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BatchItemResult>> processBatch(@RequestBody List<PromptRequest> requests,
+                                                              @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                              HttpServletRequest servletRequest) {
+        return startBatch(requests, admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+    }
+
+    /**
+     * Process newline-delimited JSON prompts with bounded parallelism
+     *
+     * The batch counts as one request against the client's quota.
+     *
+     * @param body   One prompt request per line; malformed lines are reported as invalid items
+     * @param apiKey Optional client API key, used as the quota key
+     * @return NDJSON stream with one result per request, in completion order; 429 without a body when
+     *         the client is over quota
+     */
+    @PostMapping(value = "/prompts/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<BatchItemResult>> processNdjsonBatch(@RequestBody String body,
+                                                                    @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                                    HttpServletRequest servletRequest) {
+        List<PromptRequest> requests = new ArrayList<>();
+        body.lines().filter(line -> !line.isBlank()).forEach(line -> {
+            try {
+                requests.add(objectMapper.readValue(line, PromptRequest.class));
+            } catch (JsonProcessingException e) {
+                requests.add(null);
+            }
+        });
+        return startBatch(requests, admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+    }
+
+    private ResponseEntity<Flux<BatchItemResult>> startBatch(List<PromptRequest> requests, String clientKey) {
+        logger.info("Processing batch of {} prompts", requests.size());
+        try {
+            return ResponseEntity.ok(batchPromptService.processBatch(requests, clientKey));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (AdmissionRejectedException e) {
+            // No body: an error payload could not be rendered as NDJSON results
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .build();
         }
     }
 
@@ -56,18 +192,45 @@ public class PromptController {
         return ResponseEntity.ok("Spring AI MCP PoC is running!");
     }
 
+    /**
+     * LLM response cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(aiMcpService.getCacheStats());
+    }
+
+    /**
+     * Latency, error rate and cooldown of each LLM backend, as used for routing
+     */
+    @GetMapping("/llm/backends")
+    public ResponseEntity<List<Map<String, Object>>> getLlmBackends() {
+        return ResponseEntity.ok(routingChatModel.stats());
+    }
+
+    /**
+     * Health, outstanding requests and latency percentiles of each MCP server replica
+     */
+    @GetMapping("/mcp/endpoints")
+    public ResponseEntity<List<Map<String, Object>>> getMcpEndpoints() {
+        return ResponseEntity.ok(aiMcpService.getMcpEndpointStats());
+    }
+
     /**
      * Get available GitHub MCP tools
+     *
+     * Served from the in-memory catalog. The ETag is the catalog content hash, so polling
+     * clients sending If-None-Match get a 304 until the catalog changes.
      */
     @GetMapping("/mcp/tools")
-    public ResponseEntity<?> getMcpTools() {
-        try {
-            var tools = aiMcpService.getAvailableTools();
-            return ResponseEntity.ok(tools);
-        } catch (Exception e) {
-            logger.error("Error fetching MCP tools: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError()
-                    .body("Error fetching MCP tools: " + e.getMessage());
-        }
+    public ResponseEntity<List<Map<String, Object>>> getMcpTools() {
+        McpToolCatalog.Snapshot catalog = aiMcpService.getToolCatalog();
+        // Spring answers 304 itself when the request's If-None-Match matches this ETag
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .header("X-Tools-Fetched-At", catalog.fetchedAt().toString())
+                .header("X-Tools-Source", catalog.fallback() ? "default" : "mcp")
+                .header(HttpHeaders.AGE, String.valueOf(Duration.between(catalog.fetchedAt(), Instant.now()).toSeconds()))
+                .body(catalog.tools());
     }
 }
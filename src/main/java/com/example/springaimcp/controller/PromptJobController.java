@@ -0,0 +1,81 @@
+package com.example.springaimcp.controller;
+
+import com.example.springaimcp.model.PromptJobRequest;
+import com.example.springaimcp.model.PromptJobStatus;
+import com.example.springaimcp.service.admission.AdmissionControl;
+import com.example.springaimcp.service.job.PromptJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * REST Controller for asynchronous prompt jobs, for prompts that take longer than clients or
+ * load balancers will wait on one request
+ */
+@RestController
+@RequestMapping("/api/v1/prompt/jobs")
+@CrossOrigin(origins = "*")
+public class PromptJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptJobController.class);
+
+    private final PromptJobService promptJobService;
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public PromptJobController(PromptJobService promptJobService, AdmissionControl admissionControl) {
+        this.promptJobService = promptJobService;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * Queue a prompt job
+     *
+     * Jobs count against the client's quota when submitted; the queue and its workers bound how
+     * many run at once.
+     *
+     * @param request The prompt request with its priority and optional callback URL
+     * @param apiKey  Optional client API key, used as the quota key
+     * @return 202 Accepted with the queued job and its Location, 400 for an invalid callback URL,
+     *         or 429 when the client is over quota or the queue is full
+     */
+    @PostMapping
+    public ResponseEntity<PromptJobStatus> submitJob(@Valid @RequestBody PromptJobRequest request,
+                                                     @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                     HttpServletRequest servletRequest) {
+        admissionControl.admitQuota(admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+
+        PromptJobStatus job;
+        try {
+            job = promptJobService.submit(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        logger.info("Queued prompt job {}", job.getJobId());
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(job.getJobId())
+                        .toUri())
+                .body(job);
+    }
+
+    /**
+     * Get the status of a prompt job, with its result once it has finished
+     *
+     * @param id The job id returned on submission
+     * @return the job, or 404 if it is unknown or its retention period has passed
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<PromptJobStatus> getJob(@PathVariable String id) {
+        PromptJobStatus job = promptJobService.getStatus(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+}
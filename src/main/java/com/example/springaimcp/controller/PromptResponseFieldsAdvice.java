@@ -0,0 +1,79 @@
+package com.example.springaimcp.controller;
+
+import com.example.springaimcp.model.PromptResponse;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Field projection of prompt responses with the "fields" query parameter
+ *
+ * fields=response,model writes only those fields; fields=-mcpData writes all but mcpData,
+ * which repeats GitHub data already folded into the response text. Unknown field names, or
+ * included and excluded names mixed, are rejected with 400. The projection is applied by the
+ * Jackson converter while it writes, in any encoding.
+ */
+@RestControllerAdvice(assignableTypes = {PromptController.class, ReactivePromptController.class})
+public class PromptResponseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private static final String FIELDS_PARAMETER = "fields";
+
+    private static final Set<String> FIELDS = Set.of(
+            "response", "mcpData", "usedMcpTools", "timestamp", "status", "model", "timings", "sessionId");
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(bodyContainer.getValue() instanceof PromptResponse)
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER);
+        if (fields != null && !fields.isBlank()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(PromptResponse.FIELDS_FILTER, filter(fields)));
+        }
+    }
+
+    /**
+     * Property filter for a comma-separated list of fields to include, or of fields prefixed
+     * with '-' to exclude
+     */
+    static PropertyFilter filter(String fields) {
+        Set<String> included = new LinkedHashSet<>();
+        Set<String> excluded = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            boolean exclude = field.startsWith("-");
+            String name = exclude ? field.substring(1) : field;
+            if (!FIELDS.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown response field: " + name);
+            }
+            (exclude ? excluded : included).add(name);
+        }
+        if (!included.isEmpty() && !excluded.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Response fields must be all included or all excluded (prefixed with '-')");
+        }
+        return included.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAllExcept(excluded)
+                : SimpleBeanPropertyFilter.filterOutAllExcept(included);
+    }
+}
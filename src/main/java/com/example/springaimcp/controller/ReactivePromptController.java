@@ -0,0 +1,68 @@
+package com.example.springaimcp.controller;
+
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.AiMcpService;
+import com.example.springaimcp.service.admission.AdaptiveConcurrencyLimiter;
+import com.example.springaimcp.service.admission.AdmissionControl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking REST Controller for AI prompts with GitHub MCP integration
+ *
+ * Handlers return Monos, so no request thread is held while the LLM and MCP calls are in flight.
+ */
+@RestController
+@RequestMapping("/api/v2")
+@CrossOrigin(origins = "*")
+public class ReactivePromptController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePromptController.class);
+
+    private final AiMcpService aiMcpService;
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public ReactivePromptController(AiMcpService aiMcpService, AdmissionControl admissionControl) {
+        this.aiMcpService = aiMcpService;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * Process a prompt using Spring AI with GitHub MCP server integration
+     *
+     * @param request The prompt request containing user input
+     * @param apiKey  Optional client API key, used as the quota key
+     * @return Mono emitting the PromptResponse with AI-generated response and MCP tool usage,
+     *         or 429 when admission control rejects the prompt
+     */
+    @PostMapping("/prompt")
+    public Mono<ResponseEntity<PromptResponse>> processPrompt(@Valid @RequestBody PromptRequest request,
+                                                              @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+                                                              HttpServletRequest servletRequest) {
+        logger.debug("Processing prompt: {}", request.getPrompt());
+
+        AdaptiveConcurrencyLimiter.Permit permit = admissionControl.admit(
+                admissionControl.clientKey(apiKey, servletRequest.getRemoteAddr()));
+        return aiMcpService.processPromptReactive(request)
+                .map(response -> {
+                    permit.release(true);
+                    logger.debug("Prompt processed successfully");
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> {
+                    permit.release(false);
+                    logger.error("Error processing prompt: {}", e.getMessage(), e);
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(new PromptResponse("Error processing prompt: " + e.getMessage(), null, false)));
+                })
+                .doFinally(signal -> permit.releaseUnmeasured());
+    }
+}
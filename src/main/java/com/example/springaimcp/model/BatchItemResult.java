@@ -0,0 +1,87 @@
+package com.example.springaimcp.model;
+
+/**
+ * Result of one prompt in a batch, emitted as soon as that prompt completes
+ */
+public class BatchItemResult {
+
+    private int index;
+    private String status;
+    private PromptResponse response;
+    private String error;
+    private boolean duplicate;
+
+    public BatchItemResult() {}
+
+    public BatchItemResult(int index, String status, PromptResponse response, String error, boolean duplicate) {
+        this.index = index;
+        this.status = status;
+        this.response = response;
+        this.error = error;
+        this.duplicate = duplicate;
+    }
+
+    public static BatchItemResult success(int index, PromptResponse response, boolean duplicate) {
+        return new BatchItemResult(index, "success", response, null, duplicate);
+    }
+
+    public static BatchItemResult failed(int index, String error, boolean duplicate) {
+        return new BatchItemResult(index, "error", null, error, duplicate);
+    }
+
+    public static BatchItemResult invalid(int index, String error) {
+        return new BatchItemResult(index, "invalid", null, error, false);
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public PromptResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(PromptResponse response) {
+        this.response = response;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public void setDuplicate(boolean duplicate) {
+        this.duplicate = duplicate;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "index=" + index +
+                ", status='" + status + '\'' +
+                ", response=" + response +
+                ", error='" + error + '\'' +
+                ", duplicate=" + duplicate +
+                '}';
+    }
+}
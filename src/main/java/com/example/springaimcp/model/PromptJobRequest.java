@@ -0,0 +1,53 @@
+package com.example.springaimcp.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request model for an asynchronous prompt job: a prompt request plus its queue priority and
+ * an optional callback URL
+ */
+public class PromptJobRequest extends PromptRequest {
+
+    @Min(value = 0, message = "Priority must be between 0 and 9")
+    @Max(value = 9, message = "Priority must be between 0 and 9")
+    private int priority = 5;
+
+    @Size(max = 2048, message = "Callback URL cannot exceed 2048 characters")
+    private String callbackUrl;
+
+    public PromptJobRequest() {}
+
+    // Getters and Setters
+    /**
+     * Queue priority from 0 to 9; higher runs first, equal priorities run in submission order
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * URL the finished job status is POSTed to, if any
+     */
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
+    @Override
+    public String toString() {
+        return "PromptJobRequest{" +
+                "priority=" + priority +
+                ", callbackUrl='" + callbackUrl + '\'' +
+                ", request=" + super.toString() +
+                '}';
+    }
+}
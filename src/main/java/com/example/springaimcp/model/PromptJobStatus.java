@@ -0,0 +1,115 @@
+package com.example.springaimcp.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of an asynchronous prompt job, with its result once it has finished
+ */
+public class PromptJobStatus {
+
+    private String jobId;
+    private String status;
+    private int priority;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long waitMillis;
+    private PromptResponse result;
+    private String error;
+
+    public PromptJobStatus() {}
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * queued, running, succeeded or failed
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * Time the job spent in the queue, once a worker has picked it up
+     */
+    public Long getWaitMillis() {
+        return waitMillis;
+    }
+
+    public void setWaitMillis(Long waitMillis) {
+        this.waitMillis = waitMillis;
+    }
+
+    public PromptResponse getResult() {
+        return result;
+    }
+
+    public void setResult(PromptResponse result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "PromptJobStatus{" +
+                "jobId='" + jobId + '\'' +
+                ", status='" + status + '\'' +
+                ", priority=" + priority +
+                ", submittedAt=" + submittedAt +
+                ", startedAt=" + startedAt +
+                ", finishedAt=" + finishedAt +
+                ", waitMillis=" + waitMillis +
+                ", result=" + result +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -15,6 +15,10 @@ public class PromptRequest {
     private String context;
     private boolean enableMcpTools = true;
     private String githubToken;
+    private boolean bypassCache;
+
+    @Size(max = 128, message = "Session id cannot exceed 128 characters")
+    private String sessionId;
 
     public PromptRequest() {}
 
@@ -61,6 +65,22 @@ public class PromptRequest {
         this.githubToken = githubToken;
     }
 
+    public boolean isBypassCache() {
+        return bypassCache;
+    }
+
+    public void setBypassCache(boolean bypassCache) {
+        this.bypassCache = bypassCache;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
     @Override
     public String toString() {
         return "PromptRequest{" +
@@ -68,6 +88,8 @@ public class PromptRequest {
                 ", context='" + context + '\'' +
                 ", enableMcpTools=" + enableMcpTools +
                 ", githubToken='" + (githubToken != null ? "[REDACTED]" : "null") + '\'' +
+                ", bypassCache=" + bypassCache +
+                ", sessionId='" + sessionId + '\'' +
                 '}';
     }
 }
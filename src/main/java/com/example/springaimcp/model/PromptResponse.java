@@ -1,19 +1,29 @@
 package com.example.springaimcp.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
  * Response model for AI prompt processing
+ *
+ * Serialized through the {@link #FIELDS_FILTER} property filter, so clients can ask for a subset
+ * of the fields; all fields are written when no filter is registered under that id.
  */
+@JsonFilter(PromptResponse.FIELDS_FILTER)
 public class PromptResponse {
 
+    public static final String FIELDS_FILTER = "promptResponseFields";
+
     private String response;
     private Map<String, Object> mcpData;
     private boolean usedMcpTools;
     private LocalDateTime timestamp;
     private String status;
     private String model;
+    private Map<String, Long> timings;
+    private String sessionId;
 
     public PromptResponse() {
         this.timestamp = LocalDateTime.now();
@@ -81,6 +91,22 @@ public class PromptResponse {
         this.model = model;
     }
 
+    public Map<String, Long> getTimings() {
+        return timings;
+    }
+
+    public void setTimings(Map<String, Long> timings) {
+        this.timings = timings;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
     @Override
     public String toString() {
         return "PromptResponse{" +
@@ -90,6 +116,8 @@ public class PromptResponse {
                 ", timestamp=" + timestamp +
                 ", status='" + status + '\'' +
                 ", model='" + model + '\'' +
+                ", timings=" + timings +
+                ", sessionId='" + sessionId + '\'' +
                 '}';
     }
 }
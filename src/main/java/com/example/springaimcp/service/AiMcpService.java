@@ -2,17 +2,43 @@ package com.example.springaimcp.service;
 
 import com.example.springaimcp.model.PromptRequest;
 import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.audit.AuditLog;
+import com.example.springaimcp.service.cache.LlmResponseCache;
+import com.example.springaimcp.service.cache.SemanticResponseCache;
+import com.example.springaimcp.service.conversation.ConversationStore;
+import com.example.springaimcp.service.llm.ChatOptionsFactory;
+import com.example.springaimcp.service.llm.RoutedChatResponse;
+import com.example.springaimcp.service.mcp.GitHubIntent;
+import com.example.springaimcp.service.mcp.GitHubIntentClassifier;
 import com.example.springaimcp.service.mcp.GitHubMcpClient;
+import com.example.springaimcp.service.mcp.McpResultRenderer;
+import com.example.springaimcp.service.mcp.McpToolCallbacks;
+import com.example.springaimcp.service.mcp.McpToolCatalog;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.example.springaimcp.service.prompt.PromptAssembler;
+import com.example.springaimcp.service.prompt.TokenCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.StreamingChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service class that integrates Spring AI with GitHub MCP server
@@ -22,128 +48,485 @@ public class AiMcpService {
 
     private static final Logger logger = LoggerFactory.getLogger(AiMcpService.class);
 
-    private final ChatModel chatModel;
+    private final StreamingChatModel chatModel;
+    private final ChatModel toolCallingModel;
     private final GitHubMcpClient gitHubMcpClient;
+    private final LlmResponseCache responseCache;
+    private final SemanticResponseCache semanticCache;
+    private final McpToolCatalog toolCatalog;
+    private final McpToolCallbacks toolCallbacks;
+    private final PromptMetrics metrics;
+    private final AuditLog auditLog;
+    private final TokenCounter tokenCounter;
+    private final PromptAssembler promptAssembler;
+    private final ConversationStore conversationStore;
+    private final ChatOptionsFactory chatOptions;
+    private final Duration mcpTimeout;
+    private final McpIntegrationMode mcpMode;
 
     @Autowired
-    public AiMcpService(ChatModel chatModel, GitHubMcpClient gitHubMcpClient) {
+    public AiMcpService(StreamingChatModel chatModel,
+                        ChatModel toolCallingModel,
+                        GitHubMcpClient gitHubMcpClient,
+                        LlmResponseCache responseCache,
+                        SemanticResponseCache semanticCache,
+                        McpToolCatalog toolCatalog,
+                        McpToolCallbacks toolCallbacks,
+                        PromptMetrics metrics,
+                        AuditLog auditLog,
+                        TokenCounter tokenCounter,
+                        PromptAssembler promptAssembler,
+                        ConversationStore conversationStore,
+                        ChatOptionsFactory chatOptions,
+                        @Value("${app.ai.tools.timeout:30s}") Duration mcpTimeout,
+                        @Value("${app.ai.tools.mode:append}") McpIntegrationMode mcpMode) {
         this.chatModel = chatModel;
+        this.toolCallingModel = toolCallingModel;
         this.gitHubMcpClient = gitHubMcpClient;
+        this.responseCache = responseCache;
+        this.semanticCache = semanticCache;
+        this.toolCatalog = toolCatalog;
+        this.toolCallbacks = toolCallbacks;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.tokenCounter = tokenCounter;
+        this.promptAssembler = promptAssembler;
+        this.conversationStore = conversationStore;
+        this.chatOptions = chatOptions;
+        this.mcpTimeout = mcpTimeout;
+        this.mcpMode = mcpMode;
     }
 
     /**
      * Process a user prompt using Spring AI with GitHub MCP integration
-     * 
+     *
      * This method:
-     * 1. Analyzes the prompt to determine if GitHub tools are needed
-     * 2. Calls the LLM with available GitHub MCP functions
-     * 3. Executes any function calls through the MCP server
-     * 4. Returns the final AI response
+     * 1. Answers from the {@link SemanticResponseCache} if a similar prompt was answered recently
+     *    (except in TOOLS mode)
+     * 2. Analyzes the prompt to determine if GitHub tools are needed (except in TOOLS mode)
+     * 3. Starts the MCP query as soon as the returned Mono is subscribed
+     * 4. Calls the LLM, either alongside the MCP query (APPEND), with its data as grounding (GROUND),
+     *    or with the MCP tools registered for function calling (TOOLS)
+     * 5. Emits the final AI response with per-stage timings in milliseconds
+     *
+     * Outside TOOLS mode nothing in this pipeline blocks; the LLM answer is aggregated from the
+     * streaming chat model.
+     */
+    public Mono<PromptResponse> processPromptReactive(PromptRequest request) {
+        return Mono.defer(() -> {
+            logger.debug("Processing prompt with AI and MCP integration");
+
+            long startNanos = System.nanoTime();
+            // TOOLS answers depend on live tool results and are not cached
+            SemanticResponseCache.Probe probe = mcpMode == McpIntegrationMode.TOOLS ? null : semanticCache.probe(request);
+            // bypassCache skips the lookup; the fresh response still refreshes the cache
+            if (probe != null && !request.isBypassCache()) {
+                PromptResponse cached = semanticCache.get(probe);
+                if (cached != null) {
+                    logger.debug("Serving response for a similar prompt from the semantic cache");
+                    return Mono.just(semanticCacheHit(request, cached, startNanos));
+                }
+            }
+            Mono<McpOutcome> mcpStage = fetchMcpData(request);
+
+            Mono<PromptResponse> pipeline;
+            if (mcpMode != McpIntegrationMode.APPEND) {
+                pipeline = mcpStage.flatMap(mcp -> completePrompt(request, mcp));
+            } else {
+                // Both stages are subscribed at once; an LLM failure cancels the MCP query
+                pipeline = Mono.zip(llmStage(request, null), mcpStage)
+                        .map(stages -> buildResponse(request, stages.getT1(), stages.getT2(), startNanos));
+            }
+            if (probe != null) {
+                pipeline = pipeline.doOnNext(response -> semanticCache.put(probe, response));
+            }
+
+            return pipeline.onErrorMap(e -> {
+                logger.error("Error in AI MCP processing: {}", e.getMessage(), e);
+                auditLog.promptFailed(request, e, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                return new RuntimeException("Failed to process prompt with AI MCP integration", e);
+            });
+        }).transform(metrics::trackInFlight);
+    }
+
+    /**
+     * MCP stage on its own: query the MCP server if the prompt needs GitHub data
+     *
+     * @return the MCP outcome, or {@link McpOutcome#SKIPPED} when no query is needed or the
+     *         model calls the tools itself (TOOLS mode)
+     */
+    public Mono<McpOutcome> fetchMcpData(PromptRequest request) {
+        if (!request.isEnableMcpTools() || mcpMode == McpIntegrationMode.TOOLS) {
+            return Mono.just(McpOutcome.SKIPPED);
+        }
+        // Classified once here and handed to the MCP client, so the prompt is scanned a single time
+        GitHubIntent intent = GitHubIntentClassifier.classify(request.getPrompt());
+        return intent.requiresGitHub() ? mcpStage(request.getPrompt(), intent) : Mono.just(McpOutcome.SKIPPED);
+    }
+
+    /**
+     * LLM stage on its own: answer the prompt given an MCP outcome from {@link #fetchMcpData(PromptRequest)}
+     *
+     * The MCP data is used as grounding or appended according to the configured mode; the
+     * reported total is the MCP time plus the LLM time.
+     */
+    public Mono<PromptResponse> completePrompt(PromptRequest request, McpOutcome mcp) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(mcp.elapsedMillis());
+            Map<String, Object> groundingData = mcpMode == McpIntegrationMode.GROUND ? mcp.result() : null;
+            return llmStage(request, groundingData).map(llm -> buildResponse(request, llm, mcp, startNanos));
+        });
+    }
+
+    /**
+     * Blocking adapter over {@link #processPromptReactive(PromptRequest)} for servlet callers
      */
     public PromptResponse processPrompt(PromptRequest request) {
-        logger.info("Processing prompt with AI and MCP integration");
-        
-        try {
-            // Enhance the prompt with available GitHub tools context
-            String enhancedPrompt = buildEnhancedPrompt(request.getPrompt());
-            
-            // Configure chat options with GitHub MCP functions
-            OpenAiChatOptions chatOptions = OpenAiChatOptions.builder()
-                    .withModel("gpt-4.1")
-                    .withTemperature(0.7f)
-                    .withMaxTokens(1000)
-                    .build();
-
-            // Create prompt with enhanced context
-            Prompt prompt = new Prompt(enhancedPrompt, chatOptions);
-
-            // Call the LLM
-            var response = chatModel.call(prompt);
-            String aiResponse = response.getResult().getOutput().getContent();
-
-            // Check if the AI response indicates need for GitHub tools
-            Map<String, Object> mcpResult = null;
-            boolean usedMcpTools = false;
-            
-            if (requiresGitHubTools(request.getPrompt())) {
-                logger.info("Executing GitHub MCP tools for enhanced response");
-                mcpResult = gitHubMcpClient.executeGitHubQuery(request.getPrompt());
-                usedMcpTools = true;
-                
-                // Enhance AI response with MCP data if available
-                if (mcpResult != null && !mcpResult.isEmpty()) {
-                    aiResponse = enhanceResponseWithMcpData(aiResponse, mcpResult);
+        return processPromptReactive(request).block();
+    }
+
+    /**
+     * Stream a prompt answer as Server-Sent Events
+     *
+     * Emits one "token" event per LLM chunk, then an "mcp" event with the GitHub enrichment block
+     * (APPEND mode only) and a final "done" event. The MCP query runs while tokens are streaming;
+     * cancelling the returned Flux cancels both the LLM stream and the MCP query. In TOOLS mode
+     * the answer is only known once the tool calls are resolved and arrives as a single token event.
+     */
+    public Flux<ServerSentEvent<String>> streamPrompt(PromptRequest request) {
+        return Flux.defer(() -> {
+            logger.debug("Streaming prompt with AI and MCP integration");
+
+            long startNanos = System.nanoTime();
+            Mono<McpOutcome> mcpStage = fetchMcpData(request);
+
+            Flux<ServerSentEvent<String>> events;
+            if (mcpMode == McpIntegrationMode.TOOLS && request.isEnableMcpTools()) {
+                events = toolCallingStage(request)
+                        .map(llm -> ServerSentEvent.builder(llm.content()).event("token").build())
+                        .flux();
+            } else if (mcpMode != McpIntegrationMode.APPEND) {
+                events = mcpStage.flatMapMany(mcp -> tokenEvents(request, mcp.result()));
+            } else {
+                Mono<ServerSentEvent<String>> enrichment = mcpStage
+                        .filter(mcp -> hasMcpData(mcp.result()))
+                        .map(mcp -> ServerSentEvent.builder(renderMcpData(new StringBuilder(), mcp.result()).toString())
+                                .event("mcp")
+                                .build());
+                // mergeSequential subscribes to both eagerly but emits the enrichment after the last token
+                events = Flux.mergeSequential(tokenEvents(request, null), enrichment);
+            }
+
+            StringBuilder answer = new StringBuilder();
+            return events
+                    .doOnNext(event -> {
+                        if ("token".equals(event.event()) && event.data() != null) {
+                            answer.append(event.data());
+                        }
+                    })
+                    .concatWith(Mono.fromSupplier(() -> {
+                        String content = answer.toString();
+                        rememberTurn(request, content);
+                        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                        auditLog.stream(request, content, totalMillis);
+                        return ServerSentEvent.builder("[DONE]")
+                                .event("done")
+                                .comment("total " + totalMillis + "ms")
+                                .build();
+                    }))
+                    .doOnCancel(() -> logger.info("Prompt stream cancelled by client"));
+        }).transform(metrics::trackInFlight);
+    }
+
+    /**
+     * Statistics of the LLM response cache, the semantic response cache, the MCP query cache and the
+     * conversation store
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("llm", responseCache.stats());
+        stats.put("semantic", semanticCache.stats());
+        stats.put("mcp", gitHubMcpClient.getCacheStats());
+        stats.put("conversations", conversationStore.stats());
+        return stats;
+    }
+
+    /**
+     * Health, load and latency statistics of each GitHub MCP server replica
+     */
+    public List<Map<String, Object>> getMcpEndpointStats() {
+        return gitHubMcpClient.getEndpointStats();
+    }
+
+    /**
+     * Get available GitHub MCP tools from the background-refreshed catalog
+     */
+    public McpToolCatalog.Snapshot getToolCatalog() {
+        return toolCatalog.getSnapshot();
+    }
+
+    /**
+     * Query the MCP server with its own deadline; a missed deadline yields no GitHub data
+     */
+    private Mono<McpOutcome> mcpStage(String query, GitHubIntent intent) {
+        return gitHubMcpClient.executeGitHubQuery(query, intent)
+                .timeout(mcpTimeout)
+                .elapsed()
+                .map(timed -> new McpOutcome(timed.getT2(), timed.getT1()))
+                .onErrorResume(TimeoutException.class, e -> {
+                    // Only this prompt gives up. Without the MCP query cache the call is cancelled and
+                    // the MCP client records it as such; with the cache the shared call keeps running
+                    // for its other waiters and records its own outcome when it ends
+                    logger.warn("GitHub MCP query exceeded its {} deadline, continuing without GitHub data", mcpTimeout);
+                    return Mono.just(new McpOutcome(null, mcpTimeout.toMillis()));
+                })
+                .doOnNext(mcp -> metrics.recordStageMillis(PromptMetrics.Stage.MCP, mcp.elapsedMillis()));
+    }
+
+    /**
+     * Call the LLM through the streaming chat model and aggregate the answer
+     */
+    private Mono<LlmOutcome> llmStage(PromptRequest request, Map<String, Object> groundingData) {
+        if (mcpMode == McpIntegrationMode.TOOLS && request.isEnableMcpTools()) {
+            return toolCallingStage(request);
+        }
+        return Mono.defer(() -> {
+            long buildStartNanos = System.nanoTime();
+            PromptAssembler.AssembledPrompt assembled = assemblePrompt(request, groundingData);
+            metrics.recordStage(PromptMetrics.Stage.PROMPT_BUILD, System.nanoTime() - buildStartNanos);
+            OpenAiChatOptions options = chatOptions.forPrompt(assembled.estimatedTokens(), List.of());
+            // The system message is constant, so the user message alone identifies the prompt
+            LlmResponseCache.Key cacheKey = LlmResponseCache.key(assembled.userText(), options);
+
+            // bypassCache skips the lookup; the fresh answer still refreshes the cache
+            if (!request.isBypassCache()) {
+                String cached = responseCache.get(cacheKey);
+                if (cached != null) {
+                    logger.debug("Serving LLM response from cache");
+                    return Mono.just(new LlmOutcome(cached, 0, List.of(), "cache/" + options.getModel()));
                 }
             }
 
-            return new PromptResponse(aiResponse, mcpResult, usedMcpTools);
-            
-        } catch (Exception e) {
-            logger.error("Error in AI MCP processing: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to process prompt with AI MCP integration", e);
+            return chatModel.stream(new Prompt(assembled.messages(), options))
+                    .collect(LlmAccumulator::new, LlmAccumulator::add)
+                    .elapsed()
+                    .map(timed -> {
+                        LlmAccumulator llm = timed.getT2();
+                        String content = llm.content.toString();
+                        responseCache.put(cacheKey, content);
+                        metrics.recordStageMillis(PromptMetrics.Stage.LLM, timed.getT1());
+                        recordTokens(assembled, content, llm);
+                        return new LlmOutcome(content, timed.getT1(), List.of(), llm.routeOr(options));
+                    });
+        });
+    }
+
+    /**
+     * Call the LLM with the MCP tools registered as function callbacks, so the model decides
+     * which tools to call
+     *
+     * The chat model resolves tool calls synchronously on the calling thread, so the call runs on
+     * the bounded elastic scheduler inside a tool memo scope, and this stage is not part of the
+     * non-blocking pipeline. Spring AI 1.0.0-M1 executes the tool calls of a turn itself, one
+     * after another, and fails on tool calls it has no callback for, so they cannot be run in
+     * parallel here. Answers depend on live tool results and are not cached.
+     */
+    private Mono<LlmOutcome> toolCallingStage(PromptRequest request) {
+        return Mono.fromCallable(() -> {
+            long buildStartNanos = System.nanoTime();
+            PromptAssembler.AssembledPrompt assembled = assemblePrompt(request, null);
+            metrics.recordStage(PromptMetrics.Stage.PROMPT_BUILD, System.nanoTime() - buildStartNanos);
+            OpenAiChatOptions options = chatOptions.forPrompt(assembled.estimatedTokens(), toolCallbacks.callbacks());
+
+            long startNanos = System.nanoTime();
+            try (McpToolCallbacks.Scope scope = toolCallbacks.openScope()) {
+                ChatResponse response = toolCallingModel.call(new Prompt(assembled.messages(), options));
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+                LlmAccumulator llm = new LlmAccumulator();
+                llm.add(response);
+                String content = llm.content.toString();
+                metrics.recordStageMillis(PromptMetrics.Stage.LLM, elapsedMillis);
+                recordTokens(assembled, content, llm);
+                return new LlmOutcome(content, elapsedMillis, scope.invokedTools(), llm.routeOr(options));
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Count tokens from the provider's usage metadata, estimating locally when it reported none
+     * (OpenAI does not report usage on streamed completions)
+     */
+    private void recordTokens(PromptAssembler.AssembledPrompt prompt, String completion, LlmAccumulator llm) {
+        if (llm.promptTokens > 0 || llm.completionTokens > 0) {
+            metrics.recordTokens(llm.promptTokens, llm.completionTokens, false);
+        } else {
+            metrics.recordTokens(prompt.estimatedTokens(), tokenCounter.count(completion), true);
         }
     }
 
     /**
-     * Get available GitHub MCP tools
+     * Stream LLM tokens for the prompt, grounded with MCP data when present
      */
-    public List<Map<String, Object>> getAvailableTools() {
-        return gitHubMcpClient.getAvailableTools();
+    private Flux<ServerSentEvent<String>> tokenEvents(PromptRequest request, Map<String, Object> groundingData) {
+        return Flux.defer(() -> chatModel.stream(buildPrompt(request, groundingData))
+                .mapNotNull(AiMcpService::contentOf)
+                .map(token -> ServerSentEvent.builder(token).event("token").build()));
+    }
+
+    private Prompt buildPrompt(PromptRequest request, Map<String, Object> groundingData) {
+        PromptAssembler.AssembledPrompt assembled = assemblePrompt(request, groundingData);
+        return new Prompt(assembled.messages(), chatOptions.forPrompt(assembled.estimatedTokens(), List.of()));
     }
 
     /**
-     * Build enhanced prompt with GitHub MCP context
+     * Assemble the prompt from the session history, the request context and MCP grounding data
+     * in its compact rendering; failed MCP results are left out
      */
-    private String buildEnhancedPrompt(String originalPrompt) {
-        StringBuilder enhanced = new StringBuilder();
-        enhanced.append("You are an AI assistant with access to GitHub tools through MCP (Model Context Protocol).\n");
-        enhanced.append("You can help with GitHub-related queries including repository information, issues, pull requests, and more.\n\n");
-        enhanced.append("Available GitHub capabilities:\n");
-        enhanced.append("- Repository information and statistics\n");
-        enhanced.append("- Issue management and tracking\n");
-        enhanced.append("- Pull request analysis\n");
-        enhanced.append("- Code search and file operations\n");
-        enhanced.append("- Branch and commit information\n\n");
-        enhanced.append("User prompt: ").append(originalPrompt);
-        
-        return enhanced.toString();
+    private PromptAssembler.AssembledPrompt assemblePrompt(PromptRequest request, Map<String, Object> groundingData) {
+        return promptAssembler.assemble(request.getPrompt(), contextOf(request),
+                hasMcpData(groundingData) ? McpResultRenderer.render(groundingData) : null);
     }
 
     /**
-     * Determine if the prompt requires GitHub tools
+     * Session history followed by the request context; the latest part survives trimming
      */
-    private boolean requiresGitHubTools(String prompt) {
-        String lowerPrompt = prompt.toLowerCase();
-        return lowerPrompt.contains("github") || 
-               lowerPrompt.contains("repository") || 
-               lowerPrompt.contains("repo") ||
-               lowerPrompt.contains("issue") ||
-               lowerPrompt.contains("pull request") ||
-               lowerPrompt.contains("commit") ||
-               lowerPrompt.contains("branch");
+    private String contextOf(PromptRequest request) {
+        String history = request.getSessionId() != null ? conversationStore.history(request.getSessionId()) : null;
+        if (history == null) {
+            return request.getContext();
+        }
+        return request.getContext() != null ? history + request.getContext() : history;
     }
 
     /**
-     * Enhance AI response with MCP data
+     * Append the answered prompt to its conversation session, if it belongs to one
      */
-    private String enhanceResponseWithMcpData(String aiResponse, Map<String, Object> mcpResult) {
-        StringBuilder enhanced = new StringBuilder(aiResponse);
-        enhanced.append("\n\n**GitHub Data from MCP Server:**\n");
-        
-        if (mcpResult.containsKey("repositories")) {
-            enhanced.append("\n📁 **Repositories Found:**\n");
-            enhanced.append(mcpResult.get("repositories").toString());
+    private void rememberTurn(PromptRequest request, String answer) {
+        if (request.getSessionId() != null && !answer.isEmpty()) {
+            conversationStore.append(request.getSessionId(), request.getPrompt(), answer);
+        }
+    }
+
+    private PromptResponse buildResponse(PromptRequest request, LlmOutcome llm, McpOutcome mcp, long startNanos) {
+        String aiResponse = llm.content();
+        rememberTurn(request, aiResponse);
+        Map<String, Object> mcpResult = mcp.result();
+
+        // Enhance AI response with MCP data if available; a failed MCP call leaves the LLM-only answer
+        boolean usedMcpTools = hasMcpData(mcpResult);
+        if (!llm.invokedTools().isEmpty()) {
+            mcpResult = Map.of("tools", llm.invokedTools());
+            usedMcpTools = true;
         }
-        
-        if (mcpResult.containsKey("issues")) {
-            enhanced.append("\n🎯 **Issues:**\n");
-            enhanced.append(mcpResult.get("issues").toString());
+        if (mcpMode == McpIntegrationMode.APPEND && usedMcpTools) {
+            long enrichStartNanos = System.nanoTime();
+            aiResponse = enhanceResponseWithMcpData(aiResponse, mcpResult);
+            metrics.recordStage(PromptMetrics.Stage.ENRICH, System.nanoTime() - enrichStartNanos);
         }
-        
-        if (mcpResult.containsKey("status")) {
-            enhanced.append("\n📊 **Status:** ").append(mcpResult.get("status"));
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        if (mcp != McpOutcome.SKIPPED) {
+            timings.put("mcp", mcp.elapsedMillis());
+        }
+        timings.put("llm", llm.elapsedMillis());
+        long totalNanos = System.nanoTime() - startNanos;
+        timings.put("total", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        metrics.recordStage(PromptMetrics.Stage.TOTAL, totalNanos);
+
+        PromptResponse response = new PromptResponse(aiResponse, mcpResult, usedMcpTools);
+        response.setTimings(timings);
+        response.setSessionId(request.getSessionId());
+        response.setModel(llm.model());
+        auditLog.prompt(request, response, TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        return response;
+    }
+
+    private PromptResponse semanticCacheHit(PromptRequest request, PromptResponse response, long startNanos) {
+        long totalNanos = System.nanoTime() - startNanos;
+        metrics.recordStage(PromptMetrics.Stage.TOTAL, totalNanos);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        timings.put("total", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        response.setTimings(timings);
+        auditLog.prompt(request, response, TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        return response;
+    }
+
+    /**
+     * Whether the MCP result carries GitHub data rather than an error response
+     */
+    private static boolean hasMcpData(Map<String, Object> mcpResult) {
+        return mcpResult != null && !mcpResult.isEmpty() && !Boolean.TRUE.equals(mcpResult.get("error"));
+    }
+
+    private static String contentOf(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getContent();
+    }
+
+    /**
+     * Enhance AI response with MCP data (package-private for benchmarks)
+     */
+    String enhanceResponseWithMcpData(String aiResponse, Map<String, Object> mcpResult) {
+        return renderMcpData(new StringBuilder(aiResponse).append("\n\n"), mcpResult).toString();
+    }
+
+    /**
+     * Render the GitHub enrichment block for MCP data, one line per item
+     */
+    private StringBuilder renderMcpData(StringBuilder enhanced, Map<String, Object> mcpResult) {
+        enhanced.append("**GitHub Data from MCP Server:**\n");
+        return McpResultRenderer.render(enhanced, mcpResult);
+    }
+
+    /**
+     * Result of the MCP stage; the result is null when the query was skipped or missed its deadline
+     */
+    public record McpOutcome(Map<String, Object> result, long elapsedMillis) {
+        public static final McpOutcome SKIPPED = new McpOutcome(null, 0);
+    }
+
+    /**
+     * Result of the LLM stage; invokedTools lists the MCP tools the model called (TOOLS mode),
+     * model is the backend and model that answered, or "cache/<model>" for a cached answer
+     */
+    private record LlmOutcome(String content, long elapsedMillis, List<String> invokedTools, String model) {}
+
+    /**
+     * Aggregates streamed chunks into the answer and keeps the latest usage the provider reported
+     */
+    private static final class LlmAccumulator {
+        private final StringBuilder content = new StringBuilder();
+        private long promptTokens;
+        private long completionTokens;
+        private String route;
+
+        void add(ChatResponse response) {
+            if (route == null && response instanceof RoutedChatResponse routed) {
+                route = routed.getRoute();
+            }
+            String text = contentOf(response);
+            if (text != null) {
+                content.append(text);
+            }
+            Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+            if (usage != null) {
+                promptTokens = Math.max(promptTokens, orZero(usage.getPromptTokens()));
+                completionTokens = Math.max(completionTokens, orZero(usage.getGenerationTokens()));
+            }
+        }
+
+        /**
+         * The backend and model reported by the router, else the requested model
+         */
+        String routeOr(OpenAiChatOptions options) {
+            return route != null ? route : options.getModel();
+        }
+
+        private static long orZero(Long tokens) {
+            return tokens != null ? tokens : 0;
         }
-        
-        return enhanced.toString();
     }
 }
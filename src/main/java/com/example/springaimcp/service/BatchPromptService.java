@@ -0,0 +1,171 @@
+package com.example.springaimcp.service;
+
+import com.example.springaimcp.model.BatchItemResult;
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.service.admission.AdmissionControl;
+import com.example.springaimcp.service.admission.AdmissionRejectedException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Processes batches of prompts with bounded parallelism
+ *
+ * A batch counts as one request against the client's quota, like a queued job: its load is
+ * bounded by the batch's own MCP and LLM concurrency rather than by the interactive rate.
+ * Identical prompts in a batch are computed once. The MCP and LLM stages run as
+ * a pipeline, each with its own concurrency limit, and results are emitted as soon as each
+ * prompt completes. Prompts sharing a sessionId are turns of one conversation: they are never
+ * deduplicated and run one after another, in batch order, taking one slot of each stage.
+ */
+@Service
+public class BatchPromptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchPromptService.class);
+
+    private final AiMcpService aiMcpService;
+    private final AdmissionControl admissionControl;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int mcpConcurrency;
+    private final int llmConcurrency;
+
+    public BatchPromptService(AiMcpService aiMcpService,
+                              AdmissionControl admissionControl,
+                              Validator validator,
+                              @Value("${app.batch.max-size:10000}") int maxBatchSize,
+                              @Value("${app.batch.mcp-concurrency:8}") int mcpConcurrency,
+                              @Value("${app.batch.llm-concurrency:16}") int llmConcurrency) {
+        this.aiMcpService = aiMcpService;
+        this.admissionControl = admissionControl;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.mcpConcurrency = mcpConcurrency;
+        this.llmConcurrency = llmConcurrency;
+    }
+
+    /**
+     * Process a batch of prompts
+     *
+     * @param requests  the prompts; null entries are reported as invalid
+     * @param clientKey quota key of the client, see {@link AdmissionControl#clientKey}
+     * @return one result per request, in completion order
+     * @throws IllegalArgumentException if the batch exceeds the configured maximum size
+     * @throws AdmissionRejectedException if the client is over quota
+     */
+    public Flux<BatchItemResult> processBatch(List<PromptRequest> requests, String clientKey) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "Batch of " + requests.size() + " prompts exceeds the maximum of " + maxBatchSize);
+        }
+        admissionControl.admitQuota(clientKey);
+
+        return Flux.defer(() -> {
+            // Invalid prompts, reported first
+            List<BatchItemResult> invalid = new ArrayList<>();
+            Map<DedupKey, Group> groups = new HashMap<>();
+            Map<String, List<Group>> sessions = new HashMap<>();
+            // Units of work in batch order: one group, or all turns of a session
+            List<List<Group>> lanes = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                PromptRequest request = requests.get(i);
+                String violation = validate(request);
+                if (violation != null) {
+                    invalid.add(BatchItemResult.invalid(i, violation));
+                    continue;
+                }
+                if (request.getSessionId() != null) {
+                    Group turn = new Group(request, new ArrayList<>(List.of(i)));
+                    sessions.computeIfAbsent(request.getSessionId(), id -> newLane(lanes)).add(turn);
+                } else {
+                    groups.computeIfAbsent(DedupKey.of(request), key -> {
+                        Group group = new Group(request, new ArrayList<>());
+                        newLane(lanes).add(group);
+                        return group;
+                    }).indices().add(i);
+                }
+            }
+            logger.info("Processing batch of {} prompts ({} unique, {} sessions, {} invalid)",
+                    requests.size(), lanes.stream().mapToInt(List::size).sum(), sessions.size(), invalid.size());
+
+            Flux<BatchItemResult> computed = Flux.fromIterable(lanes)
+                    .flatMap(lane -> Flux.fromIterable(lane)
+                            .concatMap(group -> aiMcpService.fetchMcpData(group.request())
+                                    .map(mcp -> new Staged(group, mcp)))
+                            .collectList(), mcpConcurrency)
+                    .flatMap(staged -> Flux.fromIterable(staged).concatMap(this::complete), llmConcurrency);
+
+            return Flux.concat(Flux.fromIterable(invalid), computed);
+        });
+    }
+
+    private static List<Group> newLane(List<List<Group>> lanes) {
+        List<Group> lane = new ArrayList<>(1);
+        lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * Run the LLM stage for a group and report its result for each of the group's indices
+     */
+    private Flux<BatchItemResult> complete(Staged staged) {
+        Group group = staged.group();
+        return aiMcpService.completePrompt(group.request(), staged.mcp())
+                .map(response -> resultsFor(group, index -> BatchItemResult.success(
+                        index, response, index != group.firstIndex())))
+                .onErrorResume(e -> {
+                    logger.warn("Batch prompt failed: {}", e.getMessage());
+                    return Mono.just(resultsFor(group, index -> BatchItemResult.failed(
+                            index, e.getMessage(), index != group.firstIndex())));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    private String validate(PromptRequest request) {
+        if (request == null) {
+            return "Malformed prompt request";
+        }
+        Set<ConstraintViolation<PromptRequest>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static List<BatchItemResult> resultsFor(Group group, IntFunction<BatchItemResult> result) {
+        List<BatchItemResult> results = new ArrayList<>(group.indices().size());
+        for (int index : group.indices()) {
+            results.add(result.apply(index));
+        }
+        return results;
+    }
+
+    /**
+     * Fields that determine the answer of a prompt outside a session; requests equal on these are
+     * computed once
+     */
+    private record DedupKey(String prompt, String context, boolean enableMcpTools, boolean bypassCache) {
+        static DedupKey of(PromptRequest request) {
+            return new DedupKey(request.getPrompt().trim(), Objects.requireNonNullElse(request.getContext(), ""),
+                    request.isEnableMcpTools(), request.isBypassCache());
+        }
+    }
+
+    private record Group(PromptRequest request, List<Integer> indices) {
+        int firstIndex() {
+            return indices.get(0);
+        }
+    }
+
+    private record Staged(Group group, AiMcpService.McpOutcome mcp) {}
+}
@@ -0,0 +1,26 @@
+package com.example.springaimcp.service;
+
+/**
+ * How GitHub MCP data is combined with the LLM answer
+ */
+public enum McpIntegrationMode {
+
+    /**
+     * Run the MCP query alongside the LLM call and append its data to the answer (the default)
+     */
+    APPEND,
+
+    /**
+     * Wait for the MCP query and put its data into the LLM prompt as grounding
+     */
+    GROUND,
+
+    /**
+     * Register the MCP tools as LLM function callbacks and let the model decide which to call
+     *
+     * Opt-in: answers are neither cached nor streamed token by token, the MCP query cache is not
+     * used, and the tool-calling model runs on a worker thread that blocks on each tool call. Tool
+     * calls of one turn run sequentially.
+     */
+    TOOLS
+}
@@ -0,0 +1,136 @@
+package com.example.springaimcp.service.admission;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for prompt processing that adapts to observed latency
+ *
+ * Each completed request is a latency sample. The limit follows a gradient: while latency stays
+ * within {@code tolerance} times its long-term average, the limit grows by about the square root
+ * of itself; when latency rises past that, the limit shrinks in proportion (down to half per
+ * sample). A failed request multiplies the limit by {@code backoff-ratio}. Requests over the
+ * limit are rejected at once rather than queued.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /** Samples over which the long-term latency average is taken */
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(@Value("${app.admission.limit.initial:20}") int initialLimit,
+                                      @Value("${app.admission.limit.min:4}") int minLimit,
+                                      @Value("${app.admission.limit.max:200}") int maxLimit,
+                                      @Value("${app.admission.limit.tolerance:1.5}") double tolerance,
+                                      @Value("${app.admission.limit.smoothing:0.2}") double smoothing,
+                                      @Value("${app.admission.limit.backoff-ratio:0.9}") double backoffRatio,
+                                      PromptMetrics metrics) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        metrics.gauge("prompt.concurrency.limit", "Adaptive concurrency limit of prompt processing", this::getLimit);
+    }
+
+    /**
+     * Take a slot if the limit allows
+     *
+     * @return the permit, or null when the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Suggested wait for a rejected client: the long-term average latency, at least one second
+     */
+    public synchronized Duration retryAfter() {
+        return Duration.ofNanos(Math.max((long) longRttNanos, Duration.ofSeconds(1).toNanos()));
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease, boolean failed) {
+        double newLimit;
+        if (failed) {
+            newLimit = limit * backoffRatio;
+        } else {
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_WINDOW;
+            // After a slow period the average lags far behind; let it catch up with recovered latency
+            if (longRttNanos > 2.0 * rttNanos) {
+                longRttNanos *= 0.95;
+            }
+            // Only grow when the limit is actually being used
+            if (inFlightAtRelease < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+            newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * A slot under the limit; release it exactly once, further calls are ignored
+     */
+    public final class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Release the slot and feed its latency to the limit
+         *
+         * @param success false for failed requests, which back the limit off
+         */
+        public void release(boolean success) {
+            if (released.compareAndSet(false, true)) {
+                int inFlightAtRelease = inFlight.getAndDecrement();
+                onSample(System.nanoTime() - startNanos, inFlightAtRelease, !success);
+            }
+        }
+
+        /**
+         * Release the slot without a latency sample, for cancelled requests and long-lived streams
+         */
+        public void releaseUnmeasured() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
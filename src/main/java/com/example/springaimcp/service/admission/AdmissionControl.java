@@ -0,0 +1,98 @@
+package com.example.springaimcp.service.admission;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control in front of prompt processing: the adaptive concurrency limit, then the
+ * client's quota. Rejected prompts fail fast with {@link AdmissionRejectedException}.
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ClientQuotas quotas;
+    private final PromptMetrics metrics;
+    private final Set<String> apiKeys;
+
+    public AdmissionControl(AdaptiveConcurrencyLimiter limiter, ClientQuotas quotas, PromptMetrics metrics,
+                            @Value("${app.admission.quota.api-keys:}") List<String> apiKeys) {
+        this.limiter = limiter;
+        this.quotas = quotas;
+        this.metrics = metrics;
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Admit a prompt or reject it
+     *
+     * @return the concurrency permit, to be released when the prompt completes
+     * @throws AdmissionRejectedException if the server is at its limit or the client is over quota
+     */
+    public AdaptiveConcurrencyLimiter.Permit admit(String clientKey) {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            metrics.recordAdmission("limit");
+            // Counted by the admission metric; a log line per shed prompt would add load under overload
+            logger.debug("Rejecting prompt, {} prompts in flight at the concurrency limit", limiter.getInFlight());
+            throw new AdmissionRejectedException("Server is at its concurrency limit, retry later", limiter.retryAfter());
+        }
+
+        Duration wait = quotas.tryConsume(clientKey);
+        if (!wait.isZero()) {
+            permit.releaseUnmeasured();
+            metrics.recordAdmission("quota");
+            throw new AdmissionRejectedException("Request quota exceeded, retry later", wait);
+        }
+
+        metrics.recordAdmission("accepted");
+        return permit;
+    }
+
+    /**
+     * Check only the client's quota, for work whose concurrency is bounded elsewhere such as
+     * queued prompt jobs
+     *
+     * @throws AdmissionRejectedException if the client is over quota
+     */
+    public void admitQuota(String clientKey) {
+        Duration wait = quotas.tryConsume(clientKey);
+        if (!wait.isZero()) {
+            metrics.recordAdmission("quota");
+            throw new AdmissionRejectedException("Request quota exceeded, retry later", wait);
+        }
+        metrics.recordAdmission("accepted");
+    }
+
+    /**
+     * Quota key of a client: its API key if it is one of the configured keys, else its address
+     *
+     * Unknown API keys and GitHub tokens are not used: nothing validates them, so a client could
+     * send a fresh one with every request to get a full bucket. Behind a proxy the address is the
+     * client's as forwarded by the proxy, see server.forward-headers-strategy.
+     *
+     * @param apiKey        the X-API-Key header, may be null
+     * @param remoteAddress the client address of the request
+     */
+    public String clientKey(String apiKey, String remoteAddress) {
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + DigestUtils.md5DigestAsHex(apiKey.trim().getBytes(StandardCharsets.UTF_8));
+        }
+        return "addr:" + remoteAddress;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.springaimcp.service.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a prompt is rejected by admission control instead of being queued
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Suggested wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Retry-After header value: whole seconds, at least one
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
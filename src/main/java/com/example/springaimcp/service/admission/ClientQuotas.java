@@ -0,0 +1,70 @@
+package com.example.springaimcp.service.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token-bucket request quotas
+ *
+ * Each client gets a bucket of {@code burst} tokens refilled at {@code requests-per-minute}.
+ * Buckets of idle clients are dropped once they would have refilled completely.
+ */
+@Component
+public class ClientQuotas {
+
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+
+    public ClientQuotas(@Value("${app.admission.quota.enabled:true}") boolean enabled,
+                        @Value("${app.admission.quota.requests-per-minute:60}") int requestsPerMinute,
+                        @Value("${app.admission.quota.burst:20}") int burst,
+                        @Value("${app.admission.quota.max-clients:100000}") long maxClients) {
+        this.enabled = enabled;
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = burst;
+        long refillNanos = (long) Math.ceil(burst / tokensPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    /**
+     * Take one token from the client's bucket
+     *
+     * @return zero if a token was taken, otherwise the time until the next token is available
+     */
+    public Duration tryConsume(String clientKey) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(buckets.get(clientKey, key -> new TokenBucket(burst)).tryConsume(System.nanoTime()));
+    }
+
+    private final class TokenBucket {
+        private double tokens;
+        private long refilledAtNanos;
+
+        private TokenBucket(double tokens) {
+            this.tokens = tokens;
+            this.refilledAtNanos = System.nanoTime();
+        }
+
+        synchronized long tryConsume(long nowNanos) {
+            tokens = Math.min(burst, tokens + (nowNanos - refilledAtNanos) * tokensPerNano);
+            refilledAtNanos = nowNanos;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springaimcp.service.audit;
+
+/**
+ * One audit record as handed from a request thread to the writer
+ *
+ * Only fields relevant to the type are set. Text is stored as received; redaction and
+ * truncation happen on the writer thread.
+ *
+ * @param type      prompt, stream or mcp
+ * @param timestamp epoch milliseconds
+ * @param subject   the model that answered, or the MCP operation or tool
+ * @param outcome   the response status, or the MCP call outcome
+ * @param secret    the request's GitHub token, redacted wherever it appears and never written
+ */
+record AuditEvent(String type,
+                  long timestamp,
+                  String sessionId,
+                  String subject,
+                  String outcome,
+                  long durationMillis,
+                  String prompt,
+                  String response,
+                  String secret) {
+}
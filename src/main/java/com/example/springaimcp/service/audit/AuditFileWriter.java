@@ -0,0 +1,179 @@
+package com.example.springaimcp.service.audit;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Writes audit events as JSON lines to append-only files that rotate by size
+ *
+ * Each file is named after the time it was opened, audit-yyyyMMdd-HHmmss-SSS.jsonl, and is only
+ * ever appended to. Once the current file reaches the maximum size a new one is started, and the
+ * oldest files beyond the maximum count are deleted. GitHub tokens are redacted from prompts and
+ * responses, and long text is truncated.
+ *
+ * Not thread-safe; used by the audit writer thread only.
+ */
+final class AuditFileWriter implements AutoCloseable {
+
+    static final String REDACTED = "[REDACTED]";
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".jsonl";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    /** Classic and fine-grained GitHub tokens */
+    private static final Pattern GITHUB_TOKEN = Pattern.compile("\\b(?:gh[pousr]_[A-Za-z0-9]{20,}|github_pat_\\w{20,})");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int maxTextLength;
+    private Path file;
+    private CountingOutputStream out;
+    private JsonGenerator generator;
+
+    AuditFileWriter(Path directory, long maxFileSize, int maxFiles, int maxTextLength) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.maxTextLength = maxTextLength;
+        Files.createDirectories(directory);
+        open();
+        deleteOldFiles();
+    }
+
+    /**
+     * Append one event; written to disk on {@link #flush()} or when the buffer fills
+     */
+    void write(AuditEvent event) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", event.type());
+        generator.writeNumberField("timestamp", event.timestamp());
+        writeOptional("sessionId", event.sessionId());
+        writeOptional("subject", event.subject());
+        writeOptional("outcome", event.outcome());
+        generator.writeNumberField("durationMillis", event.durationMillis());
+        writeOptional("prompt", sanitize(event.prompt(), event.secret()));
+        writeOptional("response", sanitize(event.response(), event.secret()));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Write the events appended so far and rotate if the file has reached its maximum size
+     */
+    void flush() throws IOException {
+        generator.flush();
+        if (out.count >= maxFileSize) {
+            generator.close();
+            open();
+            deleteOldFiles();
+        }
+    }
+
+    Path currentFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void writeOptional(String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    /**
+     * Redact the request's token and anything shaped like a GitHub token, then truncate
+     */
+    String sanitize(String text, String secret) {
+        if (text == null) {
+            return null;
+        }
+        if (secret != null && !secret.isBlank()) {
+            text = text.replace(secret, REDACTED);
+        }
+        text = GITHUB_TOKEN.matcher(text).replaceAll(REDACTED);
+        return text.length() > maxTextLength ? text.substring(0, maxTextLength) + "…" : text;
+    }
+
+    private void open() throws IOException {
+        Path next = directory.resolve(PREFIX + LocalDateTime.now().format(FILE_TIME) + SUFFIX);
+        // Two rotations within a millisecond would otherwise append to the same file
+        for (int i = 1; Files.exists(next); i++) {
+            next = directory.resolve(PREFIX + LocalDateTime.now().format(FILE_TIME) + "-" + i + SUFFIX);
+        }
+        file = next;
+        out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.APPEND), 64 * 1024));
+        generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Counts the bytes written to the current file
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
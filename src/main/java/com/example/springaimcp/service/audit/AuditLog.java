@@ -0,0 +1,195 @@
+package com.example.springaimcp.service.audit;
+
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of prompts, their responses and MCP calls, written off the request path
+ *
+ * Request threads hand events to a background writer through a lock-free bounded buffer and
+ * never block: when the buffer is full the event is dropped and counted in audit.events. The
+ * writer takes events in batches and writes them as JSON lines to rotating files, see
+ * {@link AuditFileWriter}, flushing once per batch. Each event is kept with probability
+ * sample-rate, independently of the others. The request's GitHub token is never written.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private final PromptMetrics metrics;
+    private final boolean enabled;
+    private final Path directory;
+    private final double sampleRate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int maxTextLength;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private AuditFileWriter fileWriter;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public AuditLog(PromptMetrics metrics,
+                    @Value("${app.audit.enabled:true}") boolean enabled,
+                    @Value("${app.audit.directory:./logs/audit}") Path directory,
+                    @Value("${app.audit.sample-rate:1.0}") double sampleRate,
+                    @Value("${app.audit.buffer-capacity:8192}") int bufferCapacity,
+                    @Value("${app.audit.batch-size:256}") int batchSize,
+                    @Value("${app.audit.flush-interval:200ms}") Duration flushInterval,
+                    @Value("${app.audit.max-file-size:64MB}") DataSize maxFileSize,
+                    @Value("${app.audit.max-files:20}") int maxFiles,
+                    @Value("${app.audit.max-text-length:4000}") int maxTextLength) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.sampleRate = sampleRate;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxFiles = maxFiles;
+        this.maxTextLength = maxTextLength;
+        this.buffer = new MpscRingBuffer<>(enabled ? bufferCapacity : 2);
+        metrics.gauge("audit.buffer.depth", "Audit events waiting for the writer", buffer::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            fileWriter = new AuditFileWriter(directory, maxFileSize, maxFiles, maxTextLength);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not open the audit log in {}, continuing without it: {}", directory, e.getMessage(), e);
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::writeLoop, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        logger.info("Writing the audit log to {}", fileWriter.currentFile());
+    }
+
+    /**
+     * Write what is buffered and close the current file
+     */
+    @PreDestroy
+    void stop() {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Record a processed prompt and its response
+     */
+    public void prompt(PromptRequest request, PromptResponse response, long durationMillis) {
+        if (sampled()) {
+            offer(new AuditEvent("prompt", System.currentTimeMillis(), request.getSessionId(), response.getModel(),
+                    response.getStatus(), durationMillis, request.getPrompt(), response.getResponse(),
+                    request.getGithubToken()));
+        }
+    }
+
+    /**
+     * Record a prompt that failed
+     */
+    public void promptFailed(PromptRequest request, Throwable error, long durationMillis) {
+        if (sampled()) {
+            offer(new AuditEvent("prompt", System.currentTimeMillis(), request.getSessionId(), null, "error",
+                    durationMillis, request.getPrompt(), error.getMessage(), request.getGithubToken()));
+        }
+    }
+
+    /**
+     * Record a streamed prompt and the answer streamed back
+     */
+    public void stream(PromptRequest request, String answer, long durationMillis) {
+        if (sampled()) {
+            offer(new AuditEvent("stream", System.currentTimeMillis(), request.getSessionId(), null, "success",
+                    durationMillis, request.getPrompt(), answer, request.getGithubToken()));
+        }
+    }
+
+    /**
+     * Record an MCP query or tool call by operation and outcome
+     */
+    public void mcpCall(String operation, String outcome, long durationMillis) {
+        if (sampled()) {
+            offer(new AuditEvent("mcp", System.currentTimeMillis(), null, operation, outcome, durationMillis,
+                    null, null, null));
+        }
+    }
+
+    private boolean sampled() {
+        return running && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void offer(AuditEvent event) {
+        if (!buffer.offer(event)) {
+            metrics.recordAuditDropped();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int written = buffer.drain(this::write, batchSize);
+            if (written > 0) {
+                flush();
+                metrics.recordAuditWritten(written);
+            } else if (!running) {
+                break;
+            } else {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the audit log: {}", e.getMessage());
+        }
+    }
+
+    private void write(AuditEvent event) {
+        try {
+            fileWriter.write(event);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordAuditDropped();
+            logger.warn("Could not write an audit event: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        try {
+            fileWriter.flush();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not flush the audit log: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springaimcp.service.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer
+ *
+ * Producers claim a slot by advancing the tail with a CAS and then publish the element into it;
+ * {@link #offer} fails instead of waiting when the buffer is full. The consumer takes elements
+ * in claim order and frees each slot before moving the head past it. A slot that is claimed but
+ * not yet published ends a drain early; the element is taken by the next one.
+ *
+ * @param <T> element type
+ */
+final class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element; safe from any thread
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(T element) {
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head.get() > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) claimed & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take up to max elements in order; consumer thread only
+     *
+     * @return the number of elements taken
+     */
+    int drain(Consumer<? super T> consumer, int max) {
+        long position = head.get();
+        int taken = 0;
+        while (taken < max) {
+            int index = (int) position & mask;
+            T element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            position++;
+            head.lazySet(position);
+            taken++;
+            consumer.accept(element);
+        }
+        return taken;
+    }
+
+    /**
+     * Elements claimed and not yet taken; approximate while producers are active
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
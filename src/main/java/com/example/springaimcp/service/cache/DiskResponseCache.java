@@ -0,0 +1,155 @@
+package com.example.springaimcp.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optional persistent tier under {@link LlmResponseCache}, so answers survive restarts and
+ * redeploys
+ *
+ * Answers are kept in a {@link SegmentStore} until their TTL runs out. A hit is decoded
+ * straight from the memory-mapped segment. Compaction runs in the background. If the store
+ * cannot be opened, the application runs without the tier rather than failing to start.
+ */
+@Component
+public class DiskResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private final boolean enabled;
+    private final Path path;
+    private final DataSize segmentSize;
+    private final DataSize maxSize;
+    private final Duration compactionInterval;
+    private final double minLiveRatio;
+    private volatile SegmentStore store;
+    private Disposable compactions;
+
+    public DiskResponseCache(@Value("${app.cache.disk.enabled:false}") boolean enabled,
+                             @Value("${app.cache.disk.path:./data/llm-cache}") Path path,
+                             @Value("${app.cache.disk.segment-size:64MB}") DataSize segmentSize,
+                             @Value("${app.cache.disk.max-size:1GB}") DataSize maxSize,
+                             @Value("${app.cache.disk.compaction.interval:10m}") Duration compactionInterval,
+                             @Value("${app.cache.disk.compaction.min-live-ratio:0.5}") double minLiveRatio) {
+        this.enabled = enabled;
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.compactionInterval = compactionInterval;
+        this.minLiveRatio = minLiveRatio;
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store = new SegmentStore(path, (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes()), maxSize.toBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not open the disk response cache at {}, continuing without it: {}", path, e.getMessage(), e);
+            return;
+        }
+        compactions = Flux.interval(compactionInterval, compactionInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::compact).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void close() {
+        if (compactions != null) {
+            compactions.dispose();
+        }
+        SegmentStore current = store;
+        store = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.warn("Could not seal the disk response cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * The stored answer with its expiry time, or null if there is none
+     */
+    public Hit get(LlmResponseCache.Key key) {
+        SegmentStore current = store;
+        if (current == null) {
+            return null;
+        }
+        SegmentStore.Entry entry = current.getEntry(keyBytes(key));
+        return entry != null
+                ? new Hit(StandardCharsets.UTF_8.decode(entry.value()).toString(), entry.expiresAtMillis())
+                : null;
+    }
+
+    public void put(LlmResponseCache.Key key, String response, Duration ttl) {
+        SegmentStore current = store;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.put(keyBytes(key), response.getBytes(StandardCharsets.UTF_8), System.currentTimeMillis() + ttl.toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Could not write to the disk response cache: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        SegmentStore current = store;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", current != null);
+        if (current != null) {
+            stats.putAll(current.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * An answer read from disk and when it expires, in epoch milliseconds
+     */
+    public record Hit(String response, long expiresAtMillis) {}
+
+    private void compact() {
+        SegmentStore current = store;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.compact(minLiveRatio);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Compacting the disk response cache failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Every key field, so answers for different models or options never share a record
+     */
+    private static byte[] keyBytes(LlmResponseCache.Key key) {
+        return (key.model() + '\n' + key.temperature() + '\n' + key.maxTokens() + '\n' + key.prompt())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
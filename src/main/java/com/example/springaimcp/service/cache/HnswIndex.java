@@ -0,0 +1,418 @@
+package com.example.springaimcp.service.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Approximate nearest-neighbour index over unit-length float vectors (HNSW)
+ *
+ * A hierarchical navigable small world graph: every vector is a node on layer 0 and, with
+ * exponentially decreasing probability, on the layers above. A search descends greedily from
+ * the top layer's entry point and then explores layer 0 with a candidate list of size ef.
+ * Neighbours are picked with the diversity heuristic of the HNSW paper, which keeps recall up
+ * on clustered data. Similarity is the dot product, i.e. cosine similarity for unit vectors.
+ *
+ * The index has a fixed capacity and supports no removal; callers bound its lifetime instead,
+ * see {@link SemanticResponseCache}. Vectors and links live in primitive arrays. Not thread-safe:
+ * searches may run concurrently with each other but not with {@link #add}.
+ *
+ * @param <V> value stored with each vector
+ */
+public class HnswIndex<V> {
+
+    private final int dimensions;
+    private final int capacity;
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final float[][] vectors;
+    /** links[node][layer] holds the neighbour count followed by the neighbour ids */
+    private final int[][][] links;
+    private final Object[] values;
+    private int size;
+    private int entryPoint = -1;
+    private int topLayer = -1;
+
+    /**
+     * @param maxConnections neighbours per node on the upper layers (M); twice as many on layer 0
+     * @param efConstruction candidate list size while inserting
+     * @param seed           seed of the layer assignment, so builds are reproducible
+     */
+    public HnswIndex(int dimensions, int capacity, int maxConnections, int efConstruction, long seed) {
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayer0 = 2 * maxConnections;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(Math.max(2, maxConnections));
+        this.random = new SplittableRandom(seed);
+        this.vectors = new float[capacity][];
+        this.links = new int[capacity][][];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * A search result with its cosine similarity to the query
+     */
+    public record Neighbor<V>(V value, float similarity) {}
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Insert a vector, which must have unit length and is not copied
+     *
+     * @throws IllegalStateException if the index is full
+     */
+    public void add(float[] vector, V value) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        if (size == capacity) {
+            throw new IllegalStateException("Index is full at " + capacity + " vectors");
+        }
+        int node = size;
+        int layer = randomLayer();
+        vectors[node] = vector;
+        values[node] = value;
+        links[node] = new int[layer + 1][];
+        for (int l = 0; l <= layer; l++) {
+            links[node][l] = new int[1 + maxConnections(l)];
+        }
+        size++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = layer;
+            return;
+        }
+
+        int entry = entryPoint;
+        for (int l = topLayer; l > layer; l--) {
+            entry = greedyClosest(vector, entry, l);
+        }
+        BitSet visited = new BitSet(size);
+        for (int l = Math.min(layer, topLayer); l >= 0; l--) {
+            ScoredNodes candidates = searchLayer(vector, entry, efConstruction, l, visited);
+            int[] neighbors = selectNeighbors(candidates, maxConnections(l));
+            int[] nodeLinks = links[node][l];
+            nodeLinks[0] = neighbors.length;
+            System.arraycopy(neighbors, 0, nodeLinks, 1, neighbors.length);
+            for (int neighbor : neighbors) {
+                link(neighbor, node, l);
+            }
+            entry = candidates.node(0);
+        }
+        if (layer > topLayer) {
+            entryPoint = node;
+            topLayer = layer;
+        }
+    }
+
+    /**
+     * The k nearest vectors found with a candidate list of size ef, most similar first
+     */
+    @SuppressWarnings("unchecked")
+    public List<Neighbor<V>> search(float[] query, int k, int ef) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int entry = entryPoint;
+        for (int l = topLayer; l > 0; l--) {
+            entry = greedyClosest(query, entry, l);
+        }
+        ScoredNodes found = searchLayer(query, entry, Math.max(ef, k), 0, new BitSet(size));
+        int count = Math.min(k, found.size());
+        List<Neighbor<V>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Neighbor<>((V) values[found.node(i)], found.score(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Exact k nearest vectors by scanning every vector, for measuring recall
+     */
+    @SuppressWarnings("unchecked")
+    public List<Neighbor<V>> searchExact(float[] query, int k) {
+        ScoredNodes best = new ScoredNodes(k);
+        for (int node = 0; node < size; node++) {
+            best.offer(node, dot(query, vectors[node]));
+        }
+        List<Neighbor<V>> result = new ArrayList<>(best.size());
+        for (int i = 0; i < best.size(); i++) {
+            result.add(new Neighbor<>((V) values[best.node(i)], best.score(i)));
+        }
+        return result;
+    }
+
+    private int maxConnections(int layer) {
+        return layer == 0 ? maxConnectionsLayer0 : maxConnections;
+    }
+
+    private int randomLayer() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    /**
+     * Follow the most similar neighbour on one layer until no neighbour is closer
+     */
+    private int greedyClosest(float[] query, int entry, int layer) {
+        int current = entry;
+        float currentScore = dot(query, vectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] nodeLinks = links[current][layer];
+            for (int i = 1; i <= nodeLinks[0]; i++) {
+                int neighbor = nodeLinks[i];
+                float score = dot(query, vectors[neighbor]);
+                if (score > currentScore) {
+                    current = neighbor;
+                    currentScore = score;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer, keeping the ef most similar nodes found
+     */
+    private ScoredNodes searchLayer(float[] query, int entry, int ef, int layer, BitSet visited) {
+        visited.clear();
+        ScoredNodes results = new ScoredNodes(ef);
+        // Candidates to expand, as a max-heap on similarity encoded into sortable longs
+        LongMaxHeap candidates = new LongMaxHeap(Math.max(16, ef));
+        float entryScore = dot(query, vectors[entry]);
+        visited.set(entry);
+        results.offer(entry, entryScore);
+        candidates.push(encode(entryScore, entry));
+
+        while (!candidates.isEmpty()) {
+            long top = candidates.pop();
+            if (results.isFull() && decodeScore(top) < results.worstScore()) {
+                break;
+            }
+            int[] nodeLinks = links[decodeNode(top)][layer];
+            for (int i = 1; i <= nodeLinks[0]; i++) {
+                int neighbor = nodeLinks[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = dot(query, vectors[neighbor]);
+                if (!results.isFull() || score > results.worstScore()) {
+                    results.offer(neighbor, score);
+                    candidates.push(encode(score, neighbor));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Pick up to max neighbours from the candidates, most similar first, skipping a candidate
+     * that is more similar to an already picked neighbour than to the node itself. Links then
+     * spread in different directions instead of piling into one cluster.
+     */
+    private int[] selectNeighbors(ScoredNodes candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < selected.length; i++) {
+            int candidate = candidates.node(i);
+            float score = candidates.score(i);
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (dot(vectors[candidate], vectors[selected[j]]) > score) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Add a link from node to target, re-selecting node's neighbours if it has too many
+     */
+    private void link(int node, int target, int layer) {
+        int[] nodeLinks = links[node][layer];
+        int count = nodeLinks[0];
+        if (count < nodeLinks.length - 1) {
+            nodeLinks[++nodeLinks[0]] = target;
+            return;
+        }
+        ScoredNodes candidates = new ScoredNodes(count + 1);
+        float[] vector = vectors[node];
+        for (int i = 1; i <= count; i++) {
+            candidates.offer(nodeLinks[i], dot(vector, vectors[nodeLinks[i]]));
+        }
+        candidates.offer(target, dot(vector, vectors[target]));
+        int[] neighbors = selectNeighbors(candidates, count);
+        nodeLinks[0] = neighbors.length;
+        System.arraycopy(neighbors, 0, nodeLinks, 1, neighbors.length);
+    }
+
+    /**
+     * Dot product with four independent sums, which the JIT keeps in flight together
+     */
+    static float dot(float[] a, float[] b) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int bound = a.length & ~3; i < bound; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Similarity in the high bits, flipped so that it sorts as a signed long, and the node below
+     */
+    private static long encode(float score, int node) {
+        int bits = Float.floatToRawIntBits(score);
+        int sortable = bits ^ ((bits >> 31) & 0x7FFFFFFF);
+        return ((long) sortable << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private static float decodeScore(long encoded) {
+        int sortable = (int) (encoded >> 32);
+        return Float.intBitsToFloat(sortable ^ ((sortable >> 31) & 0x7FFFFFFF));
+    }
+
+    private static int decodeNode(long encoded) {
+        return (int) encoded;
+    }
+
+    /**
+     * The best nodes seen so far, at most capacity of them, sorted by similarity descending
+     */
+    private static final class ScoredNodes {
+
+        private final int[] nodes;
+        private final float[] scores;
+        private int size;
+
+        ScoredNodes(int capacity) {
+            this.nodes = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size == nodes.length;
+        }
+
+        float worstScore() {
+            return scores[size - 1];
+        }
+
+        int node(int index) {
+            return nodes[index];
+        }
+
+        float score(int index) {
+            return scores[index];
+        }
+
+        /**
+         * Insert in order, dropping the worst node when full
+         */
+        void offer(int node, float score) {
+            if (isFull()) {
+                if (score <= scores[size - 1]) {
+                    return;
+                }
+                size--;
+            }
+            int position = size;
+            while (position > 0 && scores[position - 1] < score) {
+                position--;
+            }
+            System.arraycopy(nodes, position, nodes, position + 1, size - position);
+            System.arraycopy(scores, position, scores, position + 1, size - position);
+            nodes[position] = node;
+            scores[position] = score;
+            size++;
+        }
+    }
+
+    /**
+     * Growable binary max-heap of longs
+     */
+    private static final class LongMaxHeap {
+
+        private long[] heap;
+        private int size;
+
+        LongMaxHeap(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (heap[parent] >= value) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                position = parent;
+            }
+            heap[position] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int position = 0;
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if (last >= heap[child]) {
+                    break;
+                }
+                heap[position] = heap[child];
+                position = child;
+            }
+            heap[position] = last;
+            return top;
+        }
+    }
+}
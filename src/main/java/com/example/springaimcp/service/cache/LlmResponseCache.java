@@ -0,0 +1,154 @@
+package com.example.springaimcp.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact-match cache of LLM answers keyed on the normalized prompt and chat options
+ *
+ * Entries are weighed by their estimated heap footprint, so the cache never holds more than
+ * {@code max-heap} bytes. Every entry weighs at least {@code max-heap / max-entries}, which also
+ * caps the number of entries. Misses fall through to the optional {@link DiskResponseCache},
+ * whose hits are promoted back into memory for the rest of their TTL, not a fresh one.
+ */
+@Component
+public class LlmResponseCache {
+
+    /** Rough per-entry overhead of the key record, the cache node and the String headers */
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<Key, String> cache;
+    private final DiskResponseCache diskCache;
+
+    public LlmResponseCache(@Value("${app.cache.llm.enabled:true}") boolean enabled,
+                            @Value("${app.cache.llm.ttl:1h}") Duration ttl,
+                            @Value("${app.cache.llm.max-entries:10000}") long maxEntries,
+                            @Value("${app.cache.llm.max-heap:64MB}") DataSize maxHeap,
+                            DiskResponseCache diskCache) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.diskCache = diskCache;
+        long minEntryWeight = Math.max(1, maxHeap.toBytes() / Math.max(1, maxEntries));
+        // Like expireAfterWrite(ttl), except that answers promoted from disk keep their remaining TTL
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<Key, String>() {
+                    @Override
+                    public long expireAfterCreate(Key key, String value, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, String value, long currentTime, long currentDuration) {
+                        return ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, String value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumWeight(maxHeap.toBytes())
+                .weigher((Key key, String value) ->
+                        (int) Math.min(Integer.MAX_VALUE, Math.max(minEntryWeight, estimateBytes(key, value))))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Build the cache key for a prompt and the chat options it is sent with
+     */
+    public static Key key(String prompt, OpenAiChatOptions options) {
+        return new Key(normalize(prompt), options.getModel(), options.getTemperature(), options.getMaxTokens());
+    }
+
+    public String get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        String response = cache.getIfPresent(key);
+        if (response == null && diskCache.isEnabled()) {
+            DiskResponseCache.Hit hit = diskCache.get(key);
+            if (hit != null) {
+                response = hit.response();
+                promote(key, hit);
+            }
+        }
+        return response;
+    }
+
+    public void put(Key key, String response) {
+        if (enabled && response != null && !response.isEmpty()) {
+            cache.put(key, response);
+            diskCache.put(key, response, ttl);
+        }
+    }
+
+    /**
+     * Put an answer read from disk into memory until it expires on disk
+     */
+    private void promote(Key key, DiskResponseCache.Hit hit) {
+        long remainingMillis = Math.min(hit.expiresAtMillis() - System.currentTimeMillis(), ttl.toMillis());
+        if (remainingMillis > 0) {
+            cache.policy().expireVariably().ifPresent(expiry ->
+                    expiry.put(key, hit.response(), Duration.ofMillis(remainingMillis)));
+        }
+    }
+
+    /**
+     * Hit, miss and eviction statistics since startup
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        cache.policy().eviction().ifPresent(eviction ->
+                result.put("weightedBytes", eviction.weightedSize().orElse(0L)));
+        result.put("disk", diskCache.stats());
+        return result;
+    }
+
+    /**
+     * Trim the prompt and collapse runs of whitespace so formatting differences share an entry
+     */
+    static String normalize(String prompt) {
+        StringBuilder normalized = new StringBuilder(prompt.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < prompt.length(); i++) {
+            char c = prompt.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static long estimateBytes(Key key, String value) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.prompt().length() + value.length());
+    }
+
+    public record Key(String prompt, String model, Float temperature, Integer maxTokens) {}
+}
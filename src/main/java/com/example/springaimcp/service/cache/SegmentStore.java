@@ -0,0 +1,487 @@
+package com.example.springaimcp.service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only key-value store in memory-mapped segment files with an in-memory index
+ *
+ * Records are appended to the active segment; once it is full it is sealed and a new one is
+ * started. Every sealed segment has a hint file listing the index entries of its records, so
+ * startup reads the hints instead of the segments; a segment without a valid hint, such as the
+ * one active when the process died, is scanned and its records are checked against their CRC.
+ * The index holds a 128-bit hash of each key and the location of its latest record; reads
+ * return a read-only view of the mapped segment, so the value is never copied by the store.
+ *
+ * Every record carries an expiry time. {@link #compact(double)} drops expired entries and
+ * rewrites segments with too few live records into the active segment; whenever the store
+ * outgrows its size cap the oldest segments are dropped. Not durable against power loss: segments are
+ * forced to disk only when sealed and on close.
+ */
+public class SegmentStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStore.class);
+
+    /** CRC, key length, value length, expiry */
+    private static final int RECORD_HEADER_BYTES = 4 + 4 + 4 + 8;
+    private static final int HINT_MAGIC = 0x53484E54;
+    /** Key hash, offset, key length, value length, expiry */
+    private static final int HINT_ENTRY_BYTES = 8 + 8 + 4 + 4 + 4 + 8;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.log");
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final Map<KeyHash, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong compactedSegments = new AtomicLong();
+    private final AtomicLong droppedSegments = new AtomicLong();
+    private final long loadMillis;
+    private volatile Segment active;
+
+    /**
+     * Open the store, loading the index from the hint files and segments in the directory
+     *
+     * @param segmentBytes size of each segment file; larger records are not stored
+     * @param maxBytes     cap on the bytes written to all segments, beyond which the oldest are dropped
+     */
+    public SegmentStore(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        long startNanos = System.nanoTime();
+        int lastId = 0;
+        for (int id : existingSegmentIds()) {
+            Segment segment = Segment.openSealed(directory, id);
+            segments.put(id, segment);
+            if (!loadHint(segment)) {
+                scan(segment);
+                writeHint(segment);
+            }
+            lastId = id;
+        }
+        // The previous active segment is sealed as it is, new records go to a fresh one
+        active = Segment.create(directory, lastId + 1, segmentBytes);
+        segments.put(active.id, active);
+        loadMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        logger.info("Opened segment store {} with {} entries in {} segments in {} ms",
+                directory, index.size(), segments.size(), loadMillis);
+    }
+
+    /**
+     * Read-only view of the value stored for the key, or null if absent or expired
+     */
+    public ByteBuffer get(byte[] key) {
+        Entry entry = getEntry(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * The value stored for the key with its expiry time, or null if absent or expired
+     */
+    public Entry getEntry(byte[] key) {
+        KeyHash hash = KeyHash.of(key);
+        Location location = index.get(hash);
+        if (location == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (location.expiresAtMillis() <= System.currentTimeMillis()) {
+            index.remove(hash, location);
+            misses.incrementAndGet();
+            return null;
+        }
+        Segment segment = segments.get(location.segmentId());
+        ByteBuffer record = segment != null ? segment.record(location) : null;
+        // Guard against hash collisions by comparing the stored key
+        if (record == null || record.slice(RECORD_HEADER_BYTES, key.length).mismatch(ByteBuffer.wrap(key)) != -1) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new Entry(record.slice(RECORD_HEADER_BYTES + key.length, location.valueLength()).asReadOnlyBuffer(),
+                location.expiresAtMillis());
+    }
+
+    /**
+     * Append a record for the key, replacing any earlier one
+     *
+     * @return false if the record is larger than a segment and was not stored
+     */
+    public boolean put(byte[] key, byte[] value, long expiresAtMillis) {
+        int length = RECORD_HEADER_BYTES + key.length + value.length;
+        if (length > segmentBytes) {
+            return false;
+        }
+        KeyHash hash = KeyHash.of(key);
+        synchronized (this) {
+            Location location = append(key, ByteBuffer.wrap(value), expiresAtMillis);
+            index.put(hash, location);
+        }
+        writes.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Drop expired entries and rewrite sealed segments whose share of live bytes is below the
+     * given ratio; then drop the oldest segments while the store is over its size cap
+     */
+    public void compact(double minLiveRatio) throws IOException {
+        long now = System.currentTimeMillis();
+        Map<Integer, Long> liveBytes = new HashMap<>();
+        index.forEach((hash, location) -> {
+            if (location.expiresAtMillis() <= now) {
+                index.remove(hash, location);
+            } else {
+                liveBytes.merge(location.segmentId(), (long) location.recordLength(), Long::sum);
+            }
+        });
+
+        // Segments from the active one on may still be written to
+        int activeId = active.id;
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment.id >= activeId) {
+                continue;
+            }
+            long live = liveBytes.getOrDefault(segment.id, 0L);
+            if (segment.written == 0 || live < minLiveRatio * segment.written) {
+                rewrite(segment);
+                compactedSegments.incrementAndGet();
+            }
+        }
+
+        synchronized (this) {
+            enforceSizeCap();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", index.size());
+        stats.put("segments", segments.size());
+        stats.put("writtenBytes", writtenBytes());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("compactedSegments", compactedSegments.get());
+        stats.put("droppedSegments", droppedSegments.get());
+        stats.put("loadMillis", loadMillis);
+        return stats;
+    }
+
+    /**
+     * Seal the active segment, so the next startup loads it from its hint
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        seal(active);
+    }
+
+    /**
+     * Move the live records of a sealed segment to the active segment and delete it
+     */
+    private void rewrite(Segment segment) throws IOException {
+        int moved = 0;
+        for (Map.Entry<KeyHash, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            if (location.segmentId() != segment.id) {
+                continue;
+            }
+            ByteBuffer record = segment.record(location);
+            byte[] key = new byte[location.keyLength()];
+            record.get(RECORD_HEADER_BYTES, key);
+            ByteBuffer value = record.slice(RECORD_HEADER_BYTES + key.length, location.valueLength());
+            synchronized (this) {
+                Location copy = append(key, value, location.expiresAtMillis());
+                // A newer put of the same key wins over the copy
+                if (index.replace(entry.getKey(), location, copy)) {
+                    moved++;
+                }
+            }
+        }
+        logger.debug("Compacted segment {}: moved {} live records", segment.id, moved);
+        delete(segment);
+    }
+
+    /**
+     * Append a record to the active segment, starting a new segment when it is full; caller holds the lock
+     */
+    private Location append(byte[] key, ByteBuffer value, long expiresAtMillis) {
+        int length = RECORD_HEADER_BYTES + key.length + value.remaining();
+        if (active.position + length > segmentBytes) {
+            rollOver();
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int offset = active.position;
+        buffer.putInt(offset + 4, key.length);
+        buffer.putInt(offset + 8, value.remaining());
+        buffer.putLong(offset + 12, expiresAtMillis);
+        buffer.put(offset + RECORD_HEADER_BYTES, key);
+        buffer.put(offset + RECORD_HEADER_BYTES + key.length, value, value.position(), value.remaining());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 4, length - 4));
+        // The CRC is written last, so a torn record fails its check on recovery
+        buffer.putInt(offset, (int) crc.getValue());
+        active.position += length;
+        active.written += length;
+        return new Location(active.id, offset, key.length, value.remaining(), expiresAtMillis);
+    }
+
+    private void rollOver() {
+        try {
+            seal(active);
+            active = Segment.create(directory, active.id + 1, segmentBytes);
+            segments.put(active.id, active);
+            enforceSizeCap();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new cache segment", e);
+        }
+    }
+
+    /**
+     * Drop the oldest sealed segments while the store is over its size cap; caller holds the lock
+     */
+    private void enforceSizeCap() throws IOException {
+        while (writtenBytes() > maxBytes) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest.id >= active.id) {
+                break;
+            }
+            logger.info("Segment store is over its {} byte cap, dropping segment {}", maxBytes, oldest.id);
+            index.values().removeIf(location -> location.segmentId() == oldest.id);
+            delete(oldest);
+            droppedSegments.incrementAndGet();
+        }
+    }
+
+    private void seal(Segment segment) throws IOException {
+        segment.buffer.force();
+        writeHint(segment);
+    }
+
+    private void delete(Segment segment) throws IOException {
+        segments.remove(segment.id);
+        // Readers holding views keep the mapping alive until they are collected
+        Files.deleteIfExists(segment.path);
+        Files.deleteIfExists(hintPath(segment.id));
+    }
+
+    private long writtenBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.written).sum();
+    }
+
+    /**
+     * Rebuild the index entries of a segment from its records, stopping at the first one that
+     * is empty or fails its CRC
+     */
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        long now = System.currentTimeMillis();
+        int offset = 0;
+        int records = 0;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int keyLength = buffer.getInt(offset + 4);
+            int valueLength = buffer.getInt(offset + 8);
+            long length = (long) RECORD_HEADER_BYTES + keyLength + valueLength;
+            if (keyLength <= 0 || valueLength < 0 || offset + length > buffer.capacity()) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + 4, (int) length - 4));
+            if ((int) crc.getValue() != buffer.getInt(offset)) {
+                logger.warn("Segment {} has a corrupt record at offset {}, ignoring the rest", segment.id, offset);
+                break;
+            }
+            long expiresAtMillis = buffer.getLong(offset + 12);
+            if (expiresAtMillis > now) {
+                byte[] key = new byte[keyLength];
+                buffer.get(offset + RECORD_HEADER_BYTES, key);
+                index.put(KeyHash.of(key), new Location(segment.id, offset, keyLength, valueLength, expiresAtMillis));
+            }
+            offset += (int) length;
+            records++;
+        }
+        segment.position = offset;
+        segment.written = offset;
+        logger.info("Recovered {} records from segment {} by scanning it", records, segment.id);
+    }
+
+    /**
+     * Hint file: magic, written bytes, entry count, entries, CRC of everything before it
+     */
+    private void writeHint(Segment segment) throws IOException {
+        List<Map.Entry<KeyHash, Location>> entries = new ArrayList<>();
+        index.forEach((hash, location) -> {
+            if (location.segmentId() == segment.id) {
+                entries.add(Map.entry(hash, location));
+            }
+        });
+        ByteBuffer hint = ByteBuffer.allocate(4 + 8 + 4 + entries.size() * HINT_ENTRY_BYTES + 4);
+        hint.putInt(HINT_MAGIC).putLong(segment.written).putInt(entries.size());
+        for (Map.Entry<KeyHash, Location> entry : entries) {
+            Location location = entry.getValue();
+            hint.putLong(entry.getKey().high()).putLong(entry.getKey().low())
+                    .putInt(location.offset()).putInt(location.keyLength()).putInt(location.valueLength())
+                    .putLong(location.expiresAtMillis());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(hint.array(), 0, hint.position());
+        hint.putInt((int) crc.getValue());
+
+        Path temp = directory.resolve(hintPath(segment.id).getFileName() + ".tmp");
+        Files.write(temp, hint.array());
+        Files.move(temp, hintPath(segment.id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load the index entries of a segment from its hint file
+     *
+     * @return false if there is no hint or it is damaged
+     */
+    private boolean loadHint(Segment segment) {
+        Path path = hintPath(segment.id);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        ByteBuffer hint;
+        try {
+            hint = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (IOException e) {
+            logger.warn("Could not read the hint file of segment {}, scanning the segment instead: {}", segment.id, e.getMessage());
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        int contentLength = hint.capacity() - 4;
+        if (contentLength < 16 || hint.getInt(0) != HINT_MAGIC) {
+            return false;
+        }
+        crc.update(hint.array(), 0, contentLength);
+        int count = hint.getInt(12);
+        if ((int) crc.getValue() != hint.getInt(contentLength) || contentLength != 16 + count * HINT_ENTRY_BYTES) {
+            logger.warn("Hint file of segment {} is corrupt, scanning the segment instead", segment.id);
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        long written = hint.getLong(4);
+        hint.position(16);
+        for (int i = 0; i < count; i++) {
+            KeyHash hash = new KeyHash(hint.getLong(), hint.getLong());
+            Location location = new Location(segment.id, hint.getInt(), hint.getInt(), hint.getInt(), hint.getLong());
+            if (location.expiresAtMillis() > now) {
+                index.put(hash, location);
+            }
+        }
+        segment.position = (int) written;
+        segment.written = written;
+        return true;
+    }
+
+    private Path hintPath(int id) {
+        return directory.resolve(String.format("segment-%010d.hint", id));
+    }
+
+    private List<Integer> existingSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * One segment file and its mapping; position and written are only changed under the store's lock
+     */
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private volatile long written;
+
+        private Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, int id, int size) throws IOException {
+            Path path = directory.resolve(String.format("segment-%010d.log", id));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping outlives the channel
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        static Segment openSealed(Path directory, int id) throws IOException {
+            Path path = directory.resolve(String.format("segment-%010d.log", id));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        /**
+         * View of a whole record, independent of the buffer's position
+         */
+        ByteBuffer record(Location location) {
+            return buffer.slice(location.offset(), location.recordLength());
+        }
+    }
+
+    /**
+     * A read-only view of a stored value and its expiry time in epoch milliseconds
+     */
+    public record Entry(ByteBuffer value, long expiresAtMillis) {}
+
+    private record Location(int segmentId, int offset, int keyLength, int valueLength, long expiresAtMillis) {
+        int recordLength() {
+            return RECORD_HEADER_BYTES + keyLength + valueLength;
+        }
+    }
+
+    /**
+     * MD5 of the key; the stored key is compared on reads, so a collision is a miss
+     */
+    private record KeyHash(long high, long low) {
+        static KeyHash of(byte[] key) {
+            try {
+                ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(key));
+                return new KeyHash(digest.getLong(), digest.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.springaimcp.service.cache;
+
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.embedding.HashingPromptEmbedder;
+import com.example.springaimcp.service.embedding.PromptEmbedder;
+import com.example.springaimcp.service.mcp.GitHubIntent;
+import com.example.springaimcp.service.mcp.GitHubIntentClassifier;
+import com.example.springaimcp.service.mcp.McpQueryCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache of whole prompt responses that also answers paraphrases of a cached prompt
+ *
+ * Prompts are embedded with the {@link PromptEmbedder} and looked up in an {@link HnswIndex}; the
+ * most similar cached prompt is served when its cosine similarity reaches similarity-threshold.
+ * Similarity alone cannot tell "open" from "closed" or "by alice" from "by bob", so a neighbour is
+ * only served if both prompts have the same exact terms, see {@link #exactTerms}, and were asked
+ * with the same context and MCP setting. Requests in a conversation or with their own GitHub token
+ * are not cached, since their answers depend on more than the prompt. Disabled by default.
+ *
+ * An entry lives for the TTL, capped at the TTL of the MCP operation the prompt queries, so a
+ * cached answer never carries older GitHub data than the MCP query cache would serve. The index
+ * holds at most max-entries prompts in two generations of half that size. New prompts go into the
+ * newer generation; once it is full the older one is dropped as a whole and a new one started,
+ * since HNSW graphs do not support removal. Expired entries are skipped, and a generation is
+ * dropped once all its entries have expired.
+ */
+@Component
+public class SemanticResponseCache {
+
+    /** Neighbours checked per generation, in case the closest ones fail the context or exact-term check */
+    private static final int CANDIDATES = 8;
+    private static final int GENERATIONS = 2;
+
+    /** Negations; "isn't" and other n't contractions count as well */
+    private static final Set<String> NEGATIONS = Set.of(
+            "not", "no", "never", "none", "nor", "neither", "without", "cannot", "nothing", "non", "excluding");
+
+    /** Words naming a state, an order or a time whose opposite asks for different data */
+    private static final Set<String> QUALIFIERS = Set.of(
+            "open", "opened", "closed", "merged", "unmerged", "rejected", "declined", "draft", "ready",
+            "archived", "unarchived", "active", "inactive", "public", "private", "internal", "stale", "locked",
+            "unlocked", "resolved", "unresolved", "pending", "approved", "failed", "failing", "passed", "passing",
+            "fixed", "broken", "assigned", "unassigned", "reviewed", "unreviewed", "deprecated", "deleted",
+            "new", "old", "newest", "oldest", "latest", "earliest", "recent", "first", "last", "most", "least",
+            "more", "fewer", "less", "highest", "lowest", "top", "bottom", "before", "after", "since", "until",
+            "above", "below", "today", "yesterday", "week", "month", "year");
+
+    /** Prepositions that give the next word a role; "by alice" and "by bob" ask different things */
+    private static final Set<String> ROLE_PREPOSITIONS = Set.of("by", "from", "than", "vs", "versus");
+    private static final Set<String> DETERMINERS = Set.of("the", "a", "an", "my", "our", "your", "their", "his", "her");
+
+    private final PromptEmbedder embedder;
+    private final McpQueryCache mcpQueryCache;
+    private final boolean enabled;
+    private final float similarityThreshold;
+    private final long ttlNanos;
+    private final int generationCapacity;
+    private final int maxConnections;
+    private final int efConstruction;
+    private final int efSearch;
+    /** Newest generation first; replaced, never modified, under the put lock */
+    private volatile List<Generation> generations = List.of();
+    private final Object putLock = new Object();
+    private long generationsStarted;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SemanticResponseCache(PromptEmbedder embedder,
+                                 McpQueryCache mcpQueryCache,
+                                 @Value("${app.cache.semantic.enabled:false}") boolean enabled,
+                                 @Value("${app.cache.semantic.similarity-threshold:0.92}") float similarityThreshold,
+                                 @Value("${app.cache.semantic.ttl:10m}") Duration ttl,
+                                 @Value("${app.cache.semantic.max-entries:10000}") int maxEntries,
+                                 @Value("${app.cache.semantic.hnsw.m:16}") int maxConnections,
+                                 @Value("${app.cache.semantic.hnsw.ef-construction:100}") int efConstruction,
+                                 @Value("${app.cache.semantic.hnsw.ef-search:64}") int efSearch) {
+        this.embedder = embedder;
+        this.mcpQueryCache = mcpQueryCache;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.ttlNanos = ttl.toNanos();
+        this.generationCapacity = Math.max(1, maxEntries / GENERATIONS);
+        this.maxConnections = maxConnections;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Embed a request for {@link #get} and {@link #put}
+     *
+     * @return null if the cache is disabled or the request is not cacheable
+     */
+    public Probe probe(PromptRequest request) {
+        if (!enabled || request.getPrompt() == null || request.getSessionId() != null
+                || (request.getGithubToken() != null && !request.getGithubToken().isBlank())) {
+            return null;
+        }
+        float[] vector = embedder.embed(request.getPrompt());
+        if (vector == null) {
+            return null;
+        }
+        String context = request.getContext() == null ? "" : LlmResponseCache.normalize(request.getContext());
+        long ttl = ttlNanos;
+        if (request.isEnableMcpTools()) {
+            GitHubIntent intent = GitHubIntentClassifier.classify(request.getPrompt());
+            if (intent.requiresGitHub()) {
+                ttl = Math.min(ttl, mcpQueryCache.ttlFor(intent.operation()).toNanos());
+            }
+        }
+        return new Probe(vector, request.isEnableMcpTools() + "|" + context, exactTerms(request.getPrompt()), ttl);
+    }
+
+    /**
+     * The response cached for the most similar prompt, as a copy with a fresh timestamp and the
+     * model reported as "semantic-cache/<model>"; null if none is similar enough
+     */
+    public PromptResponse get(Probe probe) {
+        long now = System.nanoTime();
+        Entry best = null;
+        float bestSimilarity = similarityThreshold;
+        for (Generation generation : generations) {
+            for (HnswIndex.Neighbor<Entry> neighbor : generation.search(probe.vector, CANDIDATES, efSearch)) {
+                if (neighbor.similarity() < bestSimilarity) {
+                    break;
+                }
+                Entry entry = neighbor.value();
+                if (now - entry.expiresAtNanos < 0 && entry.partition.equals(probe.partition)
+                        && entry.exactTerms.equals(probe.exactTerms)) {
+                    best = entry;
+                    bestSimilarity = neighbor.similarity();
+                    break;
+                }
+            }
+        }
+        if (best == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        PromptResponse cached = best.response;
+        PromptResponse copy = new PromptResponse(cached.getResponse(), cached.getMcpData(), cached.isUsedMcpTools(),
+                cached.getStatus());
+        copy.setModel("semantic-cache/" + cached.getModel());
+        return copy;
+    }
+
+    /**
+     * Cache a successful response under the probed prompt
+     */
+    public void put(Probe probe, PromptResponse response) {
+        if (!"success".equals(response.getStatus()) || response.getResponse() == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Entry entry = new Entry(probe.partition, probe.exactTerms, response, now + probe.ttlNanos);
+        synchronized (putLock) {
+            List<Generation> current = generations;
+            Generation active = current.isEmpty() ? null : current.get(0);
+            if (active == null || active.isFull() || active.isExpired(now)) {
+                List<Generation> next = new ArrayList<>(GENERATIONS);
+                active = new Generation(new HnswIndex<>(embedder.dimensions(), generationCapacity, maxConnections,
+                        efConstruction, generationsStarted++));
+                next.add(active);
+                for (Generation generation : current) {
+                    if (next.size() < GENERATIONS && !generation.isExpired(now)) {
+                        next.add(generation);
+                    } else {
+                        evictions.add(generation.size());
+                    }
+                }
+                generations = List.copyOf(next);
+            }
+            active.add(probe.vector, entry);
+        }
+    }
+
+    /**
+     * Hit and miss counts and the size of the index since startup
+     */
+    public Map<String, Object> stats() {
+        List<Generation> current = generations;
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", current.stream().mapToLong(Generation::size).sum());
+        result.put("generations", current.size());
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        result.put("evictions", evictions.sum());
+        result.put("similarityThreshold", similarityThreshold);
+        return result;
+    }
+
+    /**
+     * Terms that must match exactly for a neighbour to be served: identifiers (owner/repo, #123,
+     * v1.2), whether the prompt negates anything, qualifiers such as "open" or "merged", and the
+     * word after a role preposition ("by alice", "from gradle")
+     */
+    static Set<String> exactTerms(String prompt) {
+        List<String> tokens = HashingPromptEmbedder.tokens(prompt);
+        Set<String> terms = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (HashingPromptEmbedder.isIdentifier(token) || QUALIFIERS.contains(token)) {
+                terms.add(token);
+            } else if (NEGATIONS.contains(token) || token.endsWith("n't")) {
+                terms.add("not");
+            } else if (ROLE_PREPOSITIONS.contains(token)) {
+                int next = i + 1;
+                while (next < tokens.size() && DETERMINERS.contains(tokens.get(next))) {
+                    next++;
+                }
+                if (next < tokens.size()) {
+                    terms.add(token + " " + tokens.get(next));
+                }
+            }
+        }
+        return Set.copyOf(terms);
+    }
+
+    /**
+     * An embedded request: its vector, the context and MCP setting and the exact terms it must
+     * share with a cached prompt, and how long its response may be cached
+     */
+    public static final class Probe {
+
+        private final float[] vector;
+        private final String partition;
+        private final Set<String> exactTerms;
+        private final long ttlNanos;
+
+        Probe(float[] vector, String partition, Set<String> exactTerms, long ttlNanos) {
+            this.vector = vector;
+            this.partition = partition;
+            this.exactTerms = exactTerms;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private record Entry(String partition, Set<String> exactTerms, PromptResponse response, long expiresAtNanos) {}
+
+    /**
+     * One HNSW index; searches share its read lock and inserts take the write lock
+     */
+    private static final class Generation {
+
+        private final HnswIndex<Entry> index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        /** When the last of its entries expires */
+        private volatile long expiresAtNanos;
+
+        Generation(HnswIndex<Entry> index) {
+            this.index = index;
+        }
+
+        List<HnswIndex.Neighbor<Entry>> search(float[] vector, int k, int ef) {
+            lock.readLock().lock();
+            try {
+                return index.search(vector, k, ef);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(float[] vector, Entry entry) {
+            lock.writeLock().lock();
+            try {
+                if (index.size() == 0 || entry.expiresAtNanos - expiresAtNanos > 0) {
+                    expiresAtNanos = entry.expiresAtNanos;
+                }
+                index.add(vector, entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        boolean isFull() {
+            lock.readLock().lock();
+            try {
+                return index.isFull();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long size() {
+            lock.readLock().lock();
+            try {
+                return index.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
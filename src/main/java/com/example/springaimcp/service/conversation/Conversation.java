@@ -0,0 +1,96 @@
+package com.example.springaimcp.service.conversation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One conversation session: a rolling summary of older turns plus the recent turns verbatim
+ *
+ * Turns chosen for compaction stay in the history until their summary is ready, so a turn
+ * that arrives during compaction still sees them.
+ */
+class Conversation {
+
+    private static final int TURN_OVERHEAD_BYTES = 64;
+
+    private final Deque<Turn> turns = new ArrayDeque<>();
+    private String summary;
+    private int turnTokens;
+    private long turnChars;
+    private boolean compacting;
+
+    synchronized void append(String prompt, String answer, int tokens) {
+        turns.addLast(new Turn(prompt, answer, tokens));
+        turnTokens += tokens;
+        turnChars += prompt.length() + answer.length();
+    }
+
+    /**
+     * Pick the oldest turns to fold into the summary so that the rest fit in targetTokens;
+     * the latest turn is always kept verbatim
+     *
+     * @return the turns to summarize, or an empty list if a compaction is already running
+     */
+    synchronized List<Turn> startCompaction(int targetTokens) {
+        if (compacting) {
+            return List.of();
+        }
+        List<Turn> folded = new ArrayList<>();
+        int remaining = turnTokens;
+        Iterator<Turn> oldestFirst = turns.iterator();
+        while (remaining > targetTokens && folded.size() < turns.size() - 1) {
+            Turn turn = oldestFirst.next();
+            folded.add(turn);
+            remaining -= turn.tokens();
+        }
+        compacting = !folded.isEmpty();
+        return folded;
+    }
+
+    /**
+     * Replace the summary and drop the folded turns, which are still the oldest ones
+     */
+    synchronized void finishCompaction(String newSummary, List<Turn> folded) {
+        for (Turn turn : folded) {
+            turns.removeFirst();
+            turnTokens -= turn.tokens();
+            turnChars -= turn.prompt().length() + turn.answer().length();
+        }
+        summary = newSummary;
+        compacting = false;
+    }
+
+    synchronized String summary() {
+        return summary;
+    }
+
+    synchronized int turnTokens() {
+        return turnTokens;
+    }
+
+    synchronized String render() {
+        return summary == null && turns.isEmpty() ? null : render(summary, turns);
+    }
+
+    synchronized long estimateBytes() {
+        return 2L * (turnChars + (summary != null ? summary.length() : 0)) + (long) TURN_OVERHEAD_BYTES * turns.size();
+    }
+
+    static String render(String summary, Collection<Turn> turns) {
+        StringBuilder history = new StringBuilder();
+        if (summary != null) {
+            history.append("Summary of the earlier conversation:\n").append(summary).append("\n\n");
+        }
+        for (Turn turn : turns) {
+            history.append("User: ").append(turn.prompt()).append('\n');
+            history.append("Assistant: ").append(turn.answer()).append("\n\n");
+        }
+        return history.toString();
+    }
+
+    record Turn(String prompt, String answer, int tokens) {}
+}
@@ -0,0 +1,166 @@
+package com.example.springaimcp.service.conversation;
+
+import com.example.springaimcp.service.llm.ChatOptionsFactory;
+import com.example.springaimcp.service.prompt.TokenCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory store of multi-turn conversation sessions
+ *
+ * Sessions expire after an idle TTL and are evicted least-recently-used first once the store
+ * reaches its heap cap. When the verbatim turns of a session exceed the compaction threshold,
+ * the oldest turns are folded into a rolling summary by the LLM in the background, so the
+ * history sent with each turn stays roughly constant in size. If the summary call fails or does
+ * not finish within the summary timeout, the turns are folded in by truncation instead.
+ */
+@Component
+public class ConversationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStore.class);
+
+    /** Rough per-session overhead of the cache node, the session object and its collections */
+    private static final int SESSION_OVERHEAD_BYTES = 256;
+
+    private static final SystemMessage SUMMARY_INSTRUCTIONS = new SystemMessage("""
+            Summarize the conversation below so it can be used as context for later turns.
+            Keep facts, names, repositories, decisions and open questions; drop pleasantries.
+            Reply with the summary only.""");
+
+    private final StreamingChatModel chatModel;
+    private final TokenCounter tokenCounter;
+    private final ChatOptionsFactory chatOptions;
+    private final int compactionThresholdTokens;
+    private final int summaryMaxTokens;
+    private final Duration summaryTimeout;
+    private final Cache<String, Conversation> sessions;
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong failedCompactions = new AtomicLong();
+
+    public ConversationStore(StreamingChatModel chatModel,
+                             TokenCounter tokenCounter,
+                             ChatOptionsFactory chatOptions,
+                             @Value("${app.conversation.ttl:30m}") Duration ttl,
+                             @Value("${app.conversation.max-sessions:10000}") long maxSessions,
+                             @Value("${app.conversation.max-heap:64MB}") DataSize maxHeap,
+                             @Value("${app.conversation.compaction.threshold-tokens:2000}") int compactionThresholdTokens,
+                             @Value("${app.conversation.compaction.summary-max-tokens:400}") int summaryMaxTokens,
+                             @Value("${app.conversation.compaction.summary-timeout:30s}") Duration summaryTimeout) {
+        this.chatModel = chatModel;
+        this.tokenCounter = tokenCounter;
+        this.chatOptions = chatOptions;
+        this.compactionThresholdTokens = compactionThresholdTokens;
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.summaryTimeout = summaryTimeout;
+        long minSessionWeight = Math.max(1, maxHeap.toBytes() / Math.max(1, maxSessions));
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                .maximumWeight(maxHeap.toBytes())
+                .weigher((String id, Conversation conversation) ->
+                        (int) Math.min(Integer.MAX_VALUE, Math.max(minSessionWeight, SESSION_OVERHEAD_BYTES + conversation.estimateBytes())))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Render the history of a session as prompt context
+     *
+     * @return the rolling summary followed by the recent turns, or null for an unknown or empty session
+     */
+    public String history(String sessionId) {
+        Conversation conversation = sessions.getIfPresent(sessionId);
+        return conversation != null ? conversation.render() : null;
+    }
+
+    /**
+     * Append a turn to the session, starting it if needed, and compact it when it grew past the threshold
+     */
+    public void append(String sessionId, String prompt, String answer) {
+        Conversation conversation = sessions.get(sessionId, id -> new Conversation());
+        conversation.append(prompt, answer, tokenCounter.count(prompt) + tokenCounter.count(answer));
+        reweigh(sessionId, conversation);
+
+        if (conversation.turnTokens() > compactionThresholdTokens) {
+            // Fold turns until they fit in half the threshold, so compaction does not run on every turn
+            List<Conversation.Turn> folded = conversation.startCompaction(compactionThresholdTokens / 2);
+            if (!folded.isEmpty()) {
+                compact(sessionId, conversation, folded);
+            }
+        }
+    }
+
+    /**
+     * Session count, hit and eviction statistics since startup
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = sessions.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sessions", sessions.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("compactions", compactions.get());
+        result.put("failedCompactions", failedCompactions.get());
+        sessions.policy().eviction().ifPresent(eviction ->
+                result.put("weightedBytes", eviction.weightedSize().orElse(0L)));
+        return result;
+    }
+
+    private void compact(String sessionId, Conversation conversation, List<Conversation.Turn> folded) {
+        String transcript = Conversation.render(conversation.summary(), folded);
+        Prompt prompt = new Prompt(List.of(SUMMARY_INSTRUCTIONS, new UserMessage(transcript)),
+                chatOptions.forSummary(summaryMaxTokens));
+
+        chatModel.stream(prompt)
+                .mapNotNull(ConversationStore::contentOf)
+                .collect(StringBuilder::new, StringBuilder::append)
+                .map(StringBuilder::toString)
+                .filter(summary -> !summary.isBlank())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("LLM returned an empty summary")))
+                // A hung call would otherwise leave the session compacting, its verbatim turns growing
+                .timeout(summaryTimeout)
+                .onErrorResume(e -> {
+                    logger.warn("Summarizing conversation failed, truncating older turns instead: {}", e.getMessage());
+                    failedCompactions.incrementAndGet();
+                    return Mono.just(tokenCounter.truncate(transcript, summaryMaxTokens, true));
+                })
+                .subscribe(summary -> {
+                    conversation.finishCompaction(tokenCounter.truncate(summary, summaryMaxTokens, true), folded);
+                    compactions.incrementAndGet();
+                    reweigh(sessionId, conversation);
+                    logger.debug("Compacted {} turns of a conversation into its summary", folded.size());
+                });
+    }
+
+    /**
+     * Re-put the session so its weight is recomputed; a session evicted meanwhile is not revived
+     */
+    private void reweigh(String sessionId, Conversation conversation) {
+        sessions.asMap().replace(sessionId, conversation, conversation);
+    }
+
+    private static String contentOf(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getContent();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.springaimcp.service.embedding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local, deterministic prompt embedding by feature hashing
+ *
+ * The prompt is lower-cased and split into words; filler words ("what", "are", "the", ...) are
+ * dropped, a few GitHub abbreviations are spelled out and plurals are folded. "repository" next
+ * to an owner/repo name says nothing the name does not, and is dropped too, so that "open issues
+ * in repo X" and "what issues are open on X" end up with the same words. Each word, and with a
+ * lower weight each of its character trigrams, is hashed into one of the vector's dimensions with
+ * a hashed sign. Identifiers such as owner/repo or #123 are hashed whole, without trigrams: they
+ * tell prompts about different repositories apart, but "a/b" is no closer to "a/c" than to "x/y".
+ *
+ * Word order is ignored and antonyms ("open", "closed") are merely different words, so the
+ * similarity alone cannot tell "merged" from "rejected"; callers must compare such words
+ * themselves, as {@link com.example.springaimcp.service.cache.SemanticResponseCache} does. Unlike
+ * a learned model it knows no synonyms beyond the built-in list. The same text always gives the
+ * same vector, with no model download or network call.
+ */
+@Component
+public class HashingPromptEmbedder implements PromptEmbedder {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "all", "an", "and", "any", "are", "at", "be", "by", "can", "could", "do", "does", "for",
+            "from", "get", "give", "have", "has", "how", "i", "in", "is", "it", "its", "list", "me", "my", "of", "on",
+            "or", "our", "please", "show", "tell", "that", "the", "their", "there", "these", "this", "those", "to",
+            "under", "us", "we", "what", "whats", "which", "with", "would", "you", "your");
+
+    private static final Map<String, String> SPELLED_OUT = Map.of(
+            "repo", "repository",
+            "repos", "repository",
+            "pr", "pull request",
+            "prs", "pull request",
+            "org", "organization",
+            "orgs", "organization");
+
+    private final int dimensions;
+
+    public HashingPromptEmbedder(@Value("${app.cache.semantic.dimensions:256}") int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        if (text == null) {
+            return null;
+        }
+        float[] vector = new float[dimensions];
+        boolean empty = true;
+        for (String word : words(text)) {
+            add(vector, word, WORD_WEIGHT);
+            if (!isIdentifier(word)) {
+                String padded = "^" + word + "$";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    add(vector, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+                }
+            }
+            empty = false;
+        }
+        return empty ? null : normalize(vector);
+    }
+
+    /**
+     * The words that are embedded, in order: lower-cased, without filler words, with abbreviations
+     * spelled out and plurals folded
+     */
+    static List<String> words(String text) {
+        List<String> tokens = tokens(text);
+        boolean namesRepository = tokens.stream().anyMatch(token -> isIdentifier(token) && token.indexOf('/') > 0);
+        List<String> words = new ArrayList<>();
+        for (String token : tokens) {
+            if (STOP_WORDS.contains(token)) {
+                continue;
+            }
+            String spelled = SPELLED_OUT.get(token);
+            if (isIdentifier(token)) {
+                words.add(token);
+            } else if (spelled != null) {
+                words.addAll(List.of(spelled.split(" ")));
+            } else {
+                words.add(singular(token.endsWith("'s") ? token.substring(0, token.length() - 2) : token));
+            }
+        }
+        if (namesRepository) {
+            words.removeIf("repository"::equals);
+        }
+        return words;
+    }
+
+    /**
+     * Lower-cased runs of letters, digits and the joiners / # - _ . that hold names like
+     * owner/repo and #123 together; joiners at either end are trimmed. An apostrophe, straight or
+     * curly, between two letters stays in the word as in "isn't" and "alice's".
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT).replace('\u2019', '\'');
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            boolean part = Character.isLetterOrDigit(c) || isJoiner(c) || (c == '\'' && start >= 0
+                    && Character.isLetter(lower.charAt(i - 1)) && i + 1 < lower.length()
+                    && Character.isLetter(lower.charAt(i + 1)));
+            if (part && start < 0) {
+                start = i;
+            } else if (!part && start >= 0) {
+                addTrimmed(tokens, lower, start, i);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Whether a token names something specific (a repository, an issue number, a version) rather
+     * than being an ordinary word
+     */
+    public static boolean isIdentifier(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.isDigit(c) || isJoiner(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJoiner(char c) {
+        return c == '/' || c == '#' || c == '-' || c == '_' || c == '.';
+    }
+
+    private static void addTrimmed(List<String> tokens, String text, int start, int end) {
+        while (start < end && text.charAt(start) != '#' && isJoiner(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isJoiner(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            tokens.add(text.substring(start, end));
+        }
+    }
+
+    private static String singular(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        vector[Math.floorMod(hash, dimensions)] += (hash & 0x80000000) == 0 ? weight : -weight;
+    }
+
+    /**
+     * 32-bit FNV-1a over the UTF-16 code units, spread by a final mix so that the low bits used
+     * for the dimension and the high bit used for the sign are independent
+     */
+    private static int fnv1a(String feature) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        if (sum == 0) {
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springaimcp.service.embedding;
+
+/**
+ * Turns a prompt into a vector whose cosine similarity to another prompt's vector says how
+ * close the two prompts are in meaning
+ *
+ * The default is the local {@link HashingPromptEmbedder}. A remote embedding model can be used
+ * instead by registering another implementation as a @Primary bean; it must return vectors of
+ * {@link #dimensions()} length with unit L2 norm.
+ */
+public interface PromptEmbedder {
+
+    /**
+     * @return a unit-length vector, or null if the text has nothing to embed
+     */
+    float[] embed(String text);
+
+    int dimensions();
+}
@@ -0,0 +1,97 @@
+package com.example.springaimcp.service.job;
+
+import com.example.springaimcp.model.PromptJobRequest;
+import com.example.springaimcp.model.PromptJobStatus;
+import com.example.springaimcp.model.PromptResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * One queued prompt job; its state moves from queued to running to succeeded or failed
+ */
+final class PromptJob {
+
+    static final String QUEUED = "queued";
+    static final String RUNNING = "running";
+    static final String SUCCEEDED = "succeeded";
+    static final String FAILED = "failed";
+
+    private final String id;
+    private final PromptJobRequest request;
+    private final long sequence;
+    private final long submittedNanos;
+    private final LocalDateTime submittedAt;
+    private String status = QUEUED;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long waitMillis;
+    private PromptResponse result;
+    private String error;
+
+    PromptJob(String id, PromptJobRequest request, long sequence) {
+        this.id = id;
+        this.request = request;
+        this.sequence = sequence;
+        this.submittedNanos = System.nanoTime();
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    String id() {
+        return id;
+    }
+
+    PromptJobRequest request() {
+        return request;
+    }
+
+    int priority() {
+        return request.getPriority();
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Mark the job as picked up by a worker
+     *
+     * @return nanoseconds the job waited in the queue
+     */
+    synchronized long start() {
+        long waitNanos = System.nanoTime() - submittedNanos;
+        status = RUNNING;
+        startedAt = LocalDateTime.now();
+        waitMillis = waitNanos / 1_000_000;
+        return waitNanos;
+    }
+
+    synchronized void succeed(PromptResponse response) {
+        status = SUCCEEDED;
+        finishedAt = LocalDateTime.now();
+        result = response;
+    }
+
+    synchronized void fail(String message) {
+        status = FAILED;
+        finishedAt = LocalDateTime.now();
+        error = message;
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    synchronized PromptJobStatus toStatus() {
+        PromptJobStatus snapshot = new PromptJobStatus();
+        snapshot.setJobId(id);
+        snapshot.setStatus(status);
+        snapshot.setPriority(request.getPriority());
+        snapshot.setSubmittedAt(submittedAt);
+        snapshot.setStartedAt(startedAt);
+        snapshot.setFinishedAt(finishedAt);
+        snapshot.setWaitMillis(waitMillis);
+        snapshot.setResult(result);
+        snapshot.setError(error);
+        return snapshot;
+    }
+}
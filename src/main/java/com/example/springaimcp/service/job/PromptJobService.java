@@ -0,0 +1,308 @@
+package com.example.springaimcp.service.job;
+
+import com.example.springaimcp.model.PromptJobRequest;
+import com.example.springaimcp.model.PromptJobStatus;
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.AiMcpService;
+import com.example.springaimcp.service.admission.AdmissionRejectedException;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.util.retry.Retry;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Runs prompts as asynchronous jobs, so long prompts do not hold a client connection open
+ *
+ * Jobs wait in a bounded priority queue, highest priority first and in submission order within
+ * a priority, and a fixed pool of workers runs them through {@link AiMcpService#processPrompt}.
+ * A full queue rejects new jobs with {@link AdmissionRejectedException}. Finished jobs are kept
+ * for the retention period and, if the job has a callback URL, their status is POSTed to it.
+ * Jobs live in memory only; queued and running jobs are lost on shutdown.
+ */
+@Service
+public class PromptJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptJobService.class);
+
+    private static final Comparator<PromptJob> QUEUE_ORDER = Comparator
+            .comparingInt(PromptJob::priority).reversed()
+            .thenComparingLong(PromptJob::sequence);
+
+    private final AiMcpService aiMcpService;
+    private final WebClient webClient;
+    private final PromptMetrics metrics;
+    private final int queueCapacity;
+    private final int workers;
+    private final Duration callbackTimeout;
+    private final int callbackRetries;
+    private final Set<String> callbackAllowedHosts;
+    private final PriorityBlockingQueue<PromptJob> queue;
+    private final Cache<String, PromptJob> jobs;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong averageRunNanos = new AtomicLong(TimeUnit.SECONDS.toNanos(10));
+    private ExecutorService executor;
+
+    public PromptJobService(AiMcpService aiMcpService,
+                            @Lazy @Qualifier("webClient") WebClient webClient,
+                            @Lazy @Qualifier("publicWebClient") WebClient publicWebClient,
+                            PromptMetrics metrics,
+                            @Value("${app.jobs.queue-capacity:1000}") int queueCapacity,
+                            @Value("${app.jobs.workers:8}") int workers,
+                            @Value("${app.jobs.retention:1h}") Duration retention,
+                            @Value("${app.jobs.callback.timeout:10s}") Duration callbackTimeout,
+                            @Value("${app.jobs.callback.retries:2}") int callbackRetries,
+                            @Value("${app.jobs.callback.allowed-hosts:}") List<String> callbackAllowedHosts) {
+        this.aiMcpService = aiMcpService;
+        this.metrics = metrics;
+        this.queueCapacity = queueCapacity;
+        this.workers = workers;
+        this.callbackTimeout = callbackTimeout;
+        this.callbackRetries = callbackRetries;
+        this.callbackAllowedHosts = callbackAllowedHosts.stream()
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        // Without allowed hosts, the connection is pinned to addresses checked to be public
+        this.webClient = this.callbackAllowedHosts.isEmpty() ? publicWebClient : webClient;
+        this.queue = new PriorityBlockingQueue<>(Math.min(queueCapacity, 64), QUEUE_ORDER);
+        // Unfinished jobs never expire, their number is bounded by the queue and the workers;
+        // the retention period starts when a job finishes
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, PromptJob>() {
+                    @Override
+                    public long expireAfterCreate(String id, PromptJob job, long currentTime) {
+                        return job.isFinished() ? retention.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, PromptJob job, long currentTime, long currentDuration) {
+                        return job.isFinished() ? retention.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, PromptJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        metrics.gauge("prompt.jobs.queue.depth", "Prompt jobs waiting for a worker", queued::get);
+        metrics.gauge("prompt.jobs.running", "Prompt jobs being processed by a worker", running::get);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "prompt-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        logger.info("Started {} prompt job workers with a queue of {}", workers, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Dropping {} queued prompt jobs on shutdown", queue.size());
+        }
+    }
+
+    /**
+     * Queue a prompt job
+     *
+     * @return the status of the queued job, including its id
+     * @throws IllegalArgumentException   if the callback URL is not an allowed http or https URL,
+     *                                    or without allowed hosts, if it points into a private network
+     * @throws AdmissionRejectedException if the queue is full
+     */
+    public PromptJobStatus submit(PromptJobRequest request) {
+        validateCallbackUrl(request.getCallbackUrl());
+
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            metrics.recordJob("rejected");
+            logger.warn("Rejecting prompt job, {} jobs already queued", queueCapacity);
+            throw new AdmissionRejectedException("Prompt job queue is full, retry later", retryAfter());
+        }
+
+        PromptJob job = new PromptJob(UUID.randomUUID().toString(), request, sequence.incrementAndGet());
+        jobs.put(job.id(), job);
+        queue.add(job);
+        metrics.recordJob("queued");
+        logger.debug("Queued prompt job {} with priority {}", job.id(), request.getPriority());
+        return job.toStatus();
+    }
+
+    /**
+     * Status of a job, or null if it is unknown or its retention period has passed
+     */
+    public PromptJobStatus getStatus(String jobId) {
+        PromptJob job = jobs.getIfPresent(jobId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            PromptJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queued.decrementAndGet();
+            run(job);
+        }
+    }
+
+    private void run(PromptJob job) {
+        metrics.recordJobWait(job.start());
+        running.incrementAndGet();
+        long startNanos = System.nanoTime();
+        try {
+            PromptResponse response = aiMcpService.processPrompt(job.request());
+            job.succeed(response);
+            metrics.recordJob("succeeded");
+        } catch (Exception e) {
+            logger.error("Error processing prompt job {}: {}", job.id(), e.getMessage(), e);
+            job.fail("Error processing prompt: " + e.getMessage());
+            metrics.recordJob("failed");
+        } finally {
+            running.decrementAndGet();
+            recordRunTime(System.nanoTime() - startNanos);
+        }
+        // Re-inserting the finished job starts its retention period
+        jobs.put(job.id(), job);
+        notifyCallback(job);
+    }
+
+    /**
+     * POST the finished job's status to its callback URL, without holding up the worker
+     *
+     * Without allowed hosts, the host name is resolved again for the connection by
+     * {@link PublicAddressResolverGroup}, which fails if it now resolves to a non-public address.
+     * Address literals were checked on submission and cannot change.
+     */
+    private void notifyCallback(PromptJob job) {
+        String callbackUrl = job.request().getCallbackUrl();
+        if (callbackUrl == null || callbackUrl.isBlank()) {
+            return;
+        }
+        webClient.post()
+                .uri(callbackUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(job.toStatus())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(callbackTimeout)
+                .retryWhen(Retry.backoff(callbackRetries, Duration.ofSeconds(1)))
+                .subscribe(
+                        response -> logger.debug("Notified {} of prompt job {}", callbackUrl, job.id()),
+                        e -> logger.warn("Callback for prompt job {} to {} failed: {}", job.id(), callbackUrl, e.getMessage()));
+    }
+
+    /**
+     * Callback URLs must be absolute http or https URLs. With allowed hosts configured, the host
+     * must be one of them; otherwise it must resolve only to public addresses, so that callbacks
+     * cannot reach loopback, link-local (cloud metadata) or private network services. This check
+     * rejects bad URLs on submission; the callback connection itself is guarded by
+     * {@link PublicAddressResolverGroup}.
+     */
+    private void validateCallbackUrl(String callbackUrl) {
+        if (callbackUrl == null || callbackUrl.isBlank()) {
+            return;
+        }
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid callback URL: " + e.getMessage());
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            throw new IllegalArgumentException("Callback URL must be an absolute http or https URL");
+        }
+        if (!callbackAllowedHosts.isEmpty()) {
+            if (!callbackAllowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Callback host " + uri.getHost() + " is not allowed");
+            }
+            return;
+        }
+        try {
+            PublicAddressResolverGroup.resolvePublic(uri.getHost());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Callback host " + uri.getHost() + " is not a resolvable public address");
+        }
+    }
+
+    /**
+     * False for wildcard, loopback, link-local, private, carrier-grade NAT, unique local IPv6 and
+     * multicast addresses
+     */
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7
+            return (bytes[0] & 0xFE) != 0xFC;
+        }
+        // 0.0.0.0/8 and 100.64.0.0/10
+        return bytes[0] != 0 && !(bytes[0] == 100 && (bytes[1] & 0xC0) == 64);
+    }
+
+    /**
+     * Smoothed duration of a job; races between workers only lose a sample
+     */
+    private void recordRunTime(long nanos) {
+        long average = averageRunNanos.get();
+        averageRunNanos.set(average + (nanos - average) / 5);
+    }
+
+    /**
+     * Expected time until a worker frees a place in the queue
+     */
+    private Duration retryAfter() {
+        return Duration.ofNanos(averageRunNanos.get() / Math.max(1, workers));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.springaimcp.service.job;
+
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetNameResolver;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Netty resolver that fails for host names resolving to any non-public address
+ *
+ * The callback connection uses the addresses this resolver returns, so the address that was
+ * checked is the one connected to: a host that answers DNS with a public address for a check and
+ * a private one for the connection (DNS rebinding) cannot reach internal services. Resolution
+ * blocks the calling event loop thread like Netty's default resolver, which is acceptable for
+ * the low volume of job callbacks.
+ */
+public final class PublicAddressResolverGroup extends AddressResolverGroup<InetSocketAddress> {
+
+    public static final PublicAddressResolverGroup INSTANCE = new PublicAddressResolverGroup();
+
+    private PublicAddressResolverGroup() {}
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+        return new PublicNameResolver(executor).asAddressResolver();
+    }
+
+    /**
+     * All addresses of a host, provided they are all public
+     *
+     * @throws UnknownHostException if the host does not resolve or any of its addresses is not public
+     */
+    static List<InetAddress> resolvePublic(String host) throws UnknownHostException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        for (InetAddress address : addresses) {
+            if (!PromptJobService.isPublicAddress(address)) {
+                throw new UnknownHostException(host + " resolves to the non-public address " + address.getHostAddress());
+            }
+        }
+        return List.of(addresses);
+    }
+
+    private static final class PublicNameResolver extends InetNameResolver {
+
+        PublicNameResolver(EventExecutor executor) {
+            super(executor);
+        }
+
+        @Override
+        protected void doResolve(String inetHost, Promise<InetAddress> promise) {
+            try {
+                promise.setSuccess(resolvePublic(inetHost).get(0));
+            } catch (UnknownHostException e) {
+                promise.setFailure(e);
+            }
+        }
+
+        @Override
+        protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise) {
+            try {
+                promise.setSuccess(resolvePublic(inetHost));
+            } catch (UnknownHostException e) {
+                promise.setFailure(e);
+            }
+        }
+    }
+}
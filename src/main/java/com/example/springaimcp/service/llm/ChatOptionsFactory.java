@@ -0,0 +1,78 @@
+package com.example.springaimcp.service.llm;
+
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chat options from the configured model settings (app.ai.model)
+ *
+ * Prompts whose estimated input is at most short-prompt.max-tokens go to the short-prompt
+ * model, typically a cheaper or faster one. The model is chosen here rather than by the
+ * router, so it is part of the LLM response cache key.
+ */
+@Component
+public class ChatOptionsFactory {
+
+    private static final float SUMMARY_TEMPERATURE = 0.2f;
+
+    private final String model;
+    private final float temperature;
+    private final int maxTokens;
+    private final String shortPromptModel;
+    private final int shortPromptMaxTokens;
+    private final String summaryModel;
+
+    public ChatOptionsFactory(@Value("${app.ai.model.name:gpt-4.1}") String model,
+                              @Value("${app.ai.model.temperature:0.7}") float temperature,
+                              @Value("${app.ai.model.max-tokens:1000}") int maxTokens,
+                              @Value("${app.ai.model.short-prompt.model:}") String shortPromptModel,
+                              @Value("${app.ai.model.short-prompt.max-tokens:0}") int shortPromptMaxTokens,
+                              @Value("${app.ai.model.summary-model:}") String summaryModel) {
+        this.model = model;
+        this.temperature = temperature;
+        this.maxTokens = maxTokens;
+        this.shortPromptModel = shortPromptModel.isBlank() ? null : shortPromptModel;
+        this.shortPromptMaxTokens = shortPromptMaxTokens;
+        this.summaryModel = summaryModel.isBlank() ? model : summaryModel;
+    }
+
+    /**
+     * Options for answering a prompt
+     *
+     * @param promptTokens      estimated input tokens of the assembled prompt
+     * @param functionCallbacks tools to register for function calling, may be empty
+     */
+    public OpenAiChatOptions forPrompt(int promptTokens, List<FunctionCallback> functionCallbacks) {
+        OpenAiChatOptions.Builder options = OpenAiChatOptions.builder()
+                .withModel(modelFor(promptTokens))
+                .withTemperature(temperature)
+                .withMaxTokens(maxTokens);
+        if (!functionCallbacks.isEmpty()) {
+            options.withFunctionCallbacks(functionCallbacks);
+        }
+        return options.build();
+    }
+
+    /**
+     * Options for summarizing a conversation into at most maxTokens
+     */
+    public OpenAiChatOptions forSummary(int maxTokens) {
+        return OpenAiChatOptions.builder()
+                .withModel(summaryModel)
+                .withTemperature(SUMMARY_TEMPERATURE)
+                .withMaxTokens(maxTokens)
+                .build();
+    }
+
+    /**
+     * The model for a prompt of the given estimated size
+     */
+    public String modelFor(int promptTokens) {
+        return shortPromptModel != null && shortPromptMaxTokens > 0 && promptTokens <= shortPromptMaxTokens
+                ? shortPromptModel : model;
+    }
+}
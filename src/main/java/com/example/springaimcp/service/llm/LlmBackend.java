@@ -0,0 +1,153 @@
+package com.example.springaimcp.service.llm;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One OpenAI-compatible backend of the {@link RoutingChatModel} with moving averages of its
+ * latency and error rate
+ *
+ * The backend's client may still be under construction; blocking calls wait for it and streams
+ * subscribe once it is ready.
+ */
+final class LlmBackend {
+
+    private final String name;
+    private final String baseUrl;
+    private final CompletableFuture<? extends ChatModel> chatModel;
+    private final CompletableFuture<? extends StreamingChatModel> streamingModel;
+    private final Map<String, String> models;
+    private final double smoothing;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private double latencyMillis = -1;
+    private double errorRate;
+    private boolean cooling;
+    private long cooldownUntilNanos;
+
+    /**
+     * @param chatModel      the backend's model, used for blocking calls
+     * @param streamingModel the same backend's model, used for streaming
+     * @param models         backend model names keyed by requested model
+     */
+    LlmBackend(String name, String baseUrl, CompletableFuture<? extends ChatModel> chatModel,
+               CompletableFuture<? extends StreamingChatModel> streamingModel, Map<String, String> models,
+               double smoothing) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.chatModel = chatModel;
+        this.streamingModel = streamingModel;
+        this.models = Map.copyOf(models);
+        this.smoothing = smoothing;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * The model for blocking calls, waiting for the client to be built if need be
+     */
+    ChatModel chatModel() {
+        return chatModel.join();
+    }
+
+    /**
+     * The model for streaming once the client is built; cancelling does not cancel the build
+     */
+    Mono<StreamingChatModel> streamingModel() {
+        return Mono.fromFuture(streamingModel, true);
+    }
+
+    /**
+     * Completes when the backend's client is built
+     */
+    CompletableFuture<Void> ready() {
+        return CompletableFuture.allOf(chatModel, streamingModel);
+    }
+
+    /**
+     * The prompt with its model renamed to this backend's name for it, if it has one
+     */
+    Prompt adapt(Prompt prompt) {
+        ChatOptions options = prompt.getOptions();
+        if (!(options instanceof OpenAiChatOptions openAiOptions) || !models.containsKey(openAiOptions.getModel())) {
+            return prompt;
+        }
+        return new Prompt(prompt.getInstructions(), withModel(openAiOptions, models.get(openAiOptions.getModel())));
+    }
+
+    /**
+     * Lower is better: the average latency inflated by the error rate; a backend without
+     * samples scores 0 so it is tried
+     */
+    synchronized double score(double errorPenalty) {
+        return latencyMillis < 0 ? 0 : latencyMillis * (1 + errorPenalty * errorRate);
+    }
+
+    synchronized boolean coolingDown(long nowNanos) {
+        return cooling && cooldownUntilNanos - nowNanos > 0;
+    }
+
+    synchronized void recordSuccess(long latencyNanos) {
+        requests.increment();
+        double millis = latencyNanos / 1_000_000.0;
+        latencyMillis = latencyMillis < 0 ? millis : latencyMillis + smoothing * (millis - latencyMillis);
+        errorRate -= smoothing * errorRate;
+        cooling = false;
+    }
+
+    /**
+     * @param cooldown time to pass this backend over, or zero
+     */
+    synchronized void recordFailure(Duration cooldown) {
+        requests.increment();
+        failures.increment();
+        errorRate += smoothing * (1 - errorRate);
+        if (!cooldown.isZero()) {
+            cooling = true;
+            cooldownUntilNanos = System.nanoTime() + cooldown.toNanos();
+        }
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("baseUrl", baseUrl);
+        stats.put("requests", requests.sum());
+        stats.put("failures", failures.sum());
+        stats.put("latencyMs", latencyMillis < 0 ? null : Math.round(latencyMillis));
+        stats.put("errorRate", Math.round(errorRate * 1000) / 1000.0);
+        stats.put("coolingDownMs", cooling ? Math.max(0, (cooldownUntilNanos - System.nanoTime()) / 1_000_000) : 0);
+        return stats;
+    }
+
+    /**
+     * Copy of the options this application sets, with another model
+     */
+    private static OpenAiChatOptions withModel(OpenAiChatOptions options, String model) {
+        OpenAiChatOptions.Builder copy = OpenAiChatOptions.builder()
+                .withModel(model)
+                .withTemperature(options.getTemperature())
+                .withMaxTokens(options.getMaxTokens())
+                .withTopP(options.getTopP());
+        if (options.getFunctionCallbacks() != null && !options.getFunctionCallbacks().isEmpty()) {
+            copy.withFunctionCallbacks(options.getFunctionCallbacks());
+        }
+        if (options.getFunctions() != null && !options.getFunctions().isEmpty()) {
+            copy.withFunctions(options.getFunctions());
+        }
+        return copy.build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springaimcp.service.llm;
+
+import org.springframework.ai.chat.model.ChatResponse;
+
+/**
+ * Chat response, or streamed chunk, tagged with the backend and model that produced it
+ */
+public class RoutedChatResponse extends ChatResponse {
+
+    private final String backend;
+    private final String model;
+
+    public RoutedChatResponse(ChatResponse response, String backend, String model) {
+        super(response.getResults(), response.getMetadata());
+        this.backend = backend;
+        this.model = model;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Backend and model as reported to clients, e.g. "openai/gpt-4.1"
+     */
+    public String getRoute() {
+        return backend + "/" + model;
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.springaimcp.service.llm;
+
+import com.example.springaimcp.config.LlmRoutingProperties;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chat model that routes each request to one of several OpenAI-compatible backends
+ *
+ * Backends are tried in order of their recent latency, inflated by their recent error rate; a
+ * small share of requests tries a random backend first so every estimate stays current. A
+ * timeout, a 429, a 5xx or an unreachable backend moves the request on to the next backend, and
+ * a 429 or an unreachable backend is passed over for the cooldown. Other errors, such as a 400
+ * for a malformed request, are not retried. A stream fails over only until its first chunk
+ * arrives. Responses are {@link RoutedChatResponse}s naming the backend and model used.
+ *
+ * Backends are configured under app.ai.routing, see {@link LlmRoutingProperties}. Their clients
+ * are built in the background while the rest of the application starts.
+ */
+@Component
+@Primary
+public class RoutingChatModel implements ChatModel, StreamingChatModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingChatModel.class);
+
+    private final List<LlmBackend> backends;
+    private final PromptMetrics metrics;
+    private final Duration firstTokenTimeout;
+    private final Duration cooldown;
+    private final double errorPenalty;
+    private final double explorationRate;
+
+    @Autowired
+    public RoutingChatModel(LlmRoutingProperties properties,
+                            PromptMetrics metrics,
+                            @Value("${spring.ai.openai.api-key}") String defaultApiKey,
+                            @Value("${spring.ai.openai.base-url:https://api.openai.com}") String defaultBaseUrl) {
+        this(createBackends(properties, defaultApiKey, defaultBaseUrl), metrics, properties.getFirstTokenTimeout(),
+                properties.getCooldown(), properties.getErrorPenalty(), properties.getExplorationRate());
+        logger.info("Routing LLM requests over backends {}", backends.stream().map(LlmBackend::name).toList());
+    }
+
+    RoutingChatModel(List<LlmBackend> backends, PromptMetrics metrics, Duration firstTokenTimeout,
+                     Duration cooldown, double errorPenalty, double explorationRate) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one LLM backend is required");
+        }
+        this.backends = List.copyOf(backends);
+        this.metrics = metrics;
+        this.firstTokenTimeout = firstTokenTimeout;
+        this.cooldown = cooldown;
+        this.errorPenalty = errorPenalty;
+        this.explorationRate = explorationRate;
+    }
+
+    /**
+     * One OpenAI client per configured backend, or for spring.ai.openai.base-url when none is configured
+     *
+     * Each client makes a single attempt, since retrying is the router's job. Clients are built
+     * asynchronously.
+     */
+    private static List<LlmBackend> createBackends(LlmRoutingProperties properties, String defaultApiKey,
+                                                   String defaultBaseUrl) {
+        List<LlmRoutingProperties.Backend> configured = properties.getBackends();
+        if (configured.isEmpty()) {
+            LlmRoutingProperties.Backend backend = new LlmRoutingProperties.Backend();
+            backend.setName("openai");
+            configured = List.of(backend);
+        }
+        List<LlmBackend> backends = new ArrayList<>();
+        for (LlmRoutingProperties.Backend backend : configured) {
+            String baseUrl = backend.getBaseUrl() != null ? backend.getBaseUrl() : defaultBaseUrl;
+            String apiKey = backend.getApiKey() != null ? backend.getApiKey() : defaultApiKey;
+            String name = backend.getName() != null ? backend.getName() : baseUrl;
+            CompletableFuture<OpenAiChatModel> chatModel = CompletableFuture.supplyAsync(() ->
+                    new OpenAiChatModel(new OpenAiApi(baseUrl, apiKey), OpenAiChatOptions.builder().build(), null,
+                            RetryTemplate.builder().maxAttempts(1).build()));
+            backends.add(new LlmBackend(name, baseUrl, chatModel, chatModel, backend.getModels(),
+                    properties.getLatencySmoothing()));
+        }
+        return backends;
+    }
+
+    /**
+     * Call the backends in routing order until one answers
+     *
+     * Runs on the calling thread, as tool callbacks resolved during the call expect. There is
+     * no deadline of its own; a hung backend fails over once its HTTP client times out.
+     */
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        RuntimeException failure = null;
+        for (LlmBackend backend : routingOrder()) {
+            Prompt routed = backend.adapt(prompt);
+            long startNanos = System.nanoTime();
+            try {
+                ChatResponse response = backend.chatModel().call(routed);
+                backend.recordSuccess(System.nanoTime() - startNanos);
+                metrics.recordLlmRoute(backend.name(), "success");
+                return new RoutedChatResponse(response, backend.name(), modelOf(routed));
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    metrics.recordLlmRoute(backend.name(), "error");
+                    throw e;
+                }
+                failOver(backend, e);
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Stream from the backends in routing order until one produces a first chunk
+     */
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> streamFrom(routingOrder(), 0, prompt, null));
+    }
+
+    /**
+     * Wait until the clients of all backends are built
+     */
+    public void awaitClients() {
+        CompletableFuture.allOf(backends.stream().map(LlmBackend::ready).toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Latency, error rate and cooldown of each backend
+     */
+    public List<Map<String, Object>> stats() {
+        return backends.stream().map(LlmBackend::stats).toList();
+    }
+
+    private Flux<ChatResponse> streamFrom(List<LlmBackend> order, int index, Prompt prompt, Throwable failure) {
+        if (index == order.size()) {
+            return Flux.error(failure);
+        }
+        LlmBackend backend = order.get(index);
+        Prompt routed = backend.adapt(prompt);
+        String model = modelOf(routed);
+        AtomicBoolean started = new AtomicBoolean();
+        long startNanos = System.nanoTime();
+
+        return backend.streamingModel().flatMapMany(streamingModel -> streamingModel.stream(routed))
+                .timeout(Mono.delay(firstTokenTimeout), chunk -> Mono.never())
+                .doOnNext(chunk -> {
+                    if (started.compareAndSet(false, true)) {
+                        backend.recordSuccess(System.nanoTime() - startNanos);
+                        metrics.recordLlmRoute(backend.name(), "success");
+                    }
+                })
+                .<ChatResponse>map(chunk -> new RoutedChatResponse(chunk, backend.name(), model))
+                .onErrorResume(e -> {
+                    if (started.get() || !isRetryable(e)) {
+                        metrics.recordLlmRoute(backend.name(), "error");
+                        return Flux.error(e);
+                    }
+                    failOver(backend, e);
+                    return streamFrom(order, index + 1, prompt, e);
+                });
+    }
+
+    private void failOver(LlmBackend backend, Throwable e) {
+        backend.recordFailure(isOverloaded(e) ? cooldown : Duration.ZERO);
+        metrics.recordLlmRoute(backend.name(), "failover");
+        logger.warn("LLM backend {} failed, trying the next one: {}", backend.name(), e.toString());
+    }
+
+    /**
+     * Backends by score, those cooling down last; occasionally a random one goes first
+     */
+    private List<LlmBackend> routingOrder() {
+        long nowNanos = System.nanoTime();
+        List<LlmBackend> order = new ArrayList<>(backends);
+        order.sort(Comparator.<LlmBackend, Boolean>comparing(backend -> backend.coolingDown(nowNanos))
+                .thenComparingDouble(backend -> backend.score(errorPenalty)));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (order.size() > 1 && random.nextDouble() < explorationRate) {
+            int explored = 1 + random.nextInt(order.size() - 1);
+            if (!order.get(explored).coolingDown(nowNanos)) {
+                order.add(0, order.remove(explored));
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Timeouts, 429s, 5xx responses and connection failures; errors are inspected down the cause chain
+     */
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof TransientAiException) {
+                return true;
+            }
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+            }
+            if (isOverloaded(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A 429 or an unreachable backend, which is passed over for the cooldown
+     */
+    private static boolean isOverloaded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientRequestException || cause instanceof ResourceAccessException) {
+                return true;
+            }
+            if (cause instanceof WebClientResponseException response && response.getStatusCode().value() == 429) {
+                return true;
+            }
+            // Spring AI reports client errors of blocking calls as "<status> - <body>"
+            if (cause instanceof NonTransientAiException && cause.getMessage() != null
+                    && cause.getMessage().startsWith("429")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String modelOf(Prompt prompt) {
+        ChatOptions options = prompt.getOptions();
+        return options instanceof OpenAiChatOptions openAiOptions && openAiOptions.getModel() != null
+                ? openAiOptions.getModel() : "default";
+    }
+}
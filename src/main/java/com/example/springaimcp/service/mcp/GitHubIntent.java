@@ -0,0 +1,42 @@
+package com.example.springaimcp.service.mcp;
+
+/**
+ * GitHub intent of a prompt, as determined by {@link GitHubIntentClassifier}
+ *
+ * Constants are declared in increasing precedence: when a prompt matches several intents,
+ * the one declared last wins.
+ */
+public enum GitHubIntent {
+
+    /** The prompt does not need GitHub data */
+    NONE("general"),
+
+    /** GitHub, commit or branch related, without a more specific operation */
+    GENERAL("general"),
+
+    PULL_REQUESTS("pull_requests"),
+
+    ISSUES("issues"),
+
+    REPOSITORY("repository");
+
+    private final String operation;
+
+    GitHubIntent(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Whether the prompt needs GitHub data from the MCP server
+     */
+    public boolean requiresGitHub() {
+        return this != NONE;
+    }
+
+    /**
+     * The MCP "operation" parameter for this intent
+     */
+    public String operation() {
+        return operation;
+    }
+}
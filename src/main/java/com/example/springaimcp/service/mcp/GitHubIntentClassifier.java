@@ -0,0 +1,123 @@
+package com.example.springaimcp.service.mcp;
+
+/**
+ * Single-pass, allocation-free GitHub intent classifier for prompts
+ *
+ * The prompt is scanned once and split into words on the fly; each word is looked up in a
+ * keyword table indexed by word length and compared case-insensitively in place. Only whole
+ * words match, so "pr" matches "PR" and "PRs" but not "price" or "improve". "pull request" is
+ * matched as two consecutive words.
+ */
+public final class GitHubIntentClassifier {
+
+    private static final int MAX_KEYWORD_LENGTH = 12;
+
+    /** Keywords indexed by their length */
+    private static final Keyword[][] KEYWORDS_BY_LENGTH = buildTable(
+            new Keyword("github", GitHubIntent.GENERAL, Role.WORD),
+            new Keyword("commit", GitHubIntent.GENERAL, Role.WORD),
+            new Keyword("commits", GitHubIntent.GENERAL, Role.WORD),
+            new Keyword("branch", GitHubIntent.GENERAL, Role.WORD),
+            new Keyword("branches", GitHubIntent.GENERAL, Role.WORD),
+            new Keyword("pr", GitHubIntent.PULL_REQUESTS, Role.WORD),
+            new Keyword("prs", GitHubIntent.PULL_REQUESTS, Role.WORD),
+            new Keyword("pull", GitHubIntent.NONE, Role.PULL),
+            new Keyword("request", GitHubIntent.PULL_REQUESTS, Role.AFTER_PULL),
+            new Keyword("requests", GitHubIntent.PULL_REQUESTS, Role.AFTER_PULL),
+            new Keyword("issue", GitHubIntent.ISSUES, Role.WORD),
+            new Keyword("issues", GitHubIntent.ISSUES, Role.WORD),
+            new Keyword("repo", GitHubIntent.REPOSITORY, Role.WORD),
+            new Keyword("repos", GitHubIntent.REPOSITORY, Role.WORD),
+            new Keyword("repository", GitHubIntent.REPOSITORY, Role.WORD),
+            new Keyword("repositories", GitHubIntent.REPOSITORY, Role.WORD));
+
+    private GitHubIntentClassifier() {}
+
+    /**
+     * Classify a prompt
+     *
+     * @param prompt the user prompt
+     * @return the highest-precedence intent found, or {@link GitHubIntent#NONE}
+     */
+    public static GitHubIntent classify(String prompt) {
+        GitHubIntent best = GitHubIntent.NONE;
+        boolean afterPull = false;
+        int length = prompt.length();
+        int i = 0;
+
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(prompt.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(prompt.charAt(i))) {
+                i++;
+            }
+            int wordLength = i - start;
+            if (wordLength == 0) {
+                break;
+            }
+
+            Keyword keyword = lookup(prompt, start, wordLength);
+            GitHubIntent intent = GitHubIntent.NONE;
+            if (keyword != null) {
+                if (keyword.role() == Role.WORD || (keyword.role() == Role.AFTER_PULL && afterPull)) {
+                    intent = keyword.intent();
+                }
+            }
+            afterPull = keyword != null && keyword.role() == Role.PULL;
+
+            if (intent.compareTo(best) > 0) {
+                best = intent;
+                if (best == GitHubIntent.REPOSITORY) {
+                    // Nothing takes precedence over a repository intent
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Keyword lookup(String prompt, int start, int wordLength) {
+        if (wordLength > MAX_KEYWORD_LENGTH) {
+            return null;
+        }
+        for (Keyword keyword : KEYWORDS_BY_LENGTH[wordLength]) {
+            if (prompt.regionMatches(true, start, keyword.word(), 0, wordLength)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    private static Keyword[][] buildTable(Keyword... keywords) {
+        Keyword[][] table = new Keyword[MAX_KEYWORD_LENGTH + 1][];
+        for (int length = 0; length <= MAX_KEYWORD_LENGTH; length++) {
+            int count = 0;
+            for (Keyword keyword : keywords) {
+                if (keyword.word().length() == length) {
+                    count++;
+                }
+            }
+            table[length] = new Keyword[count];
+            count = 0;
+            for (Keyword keyword : keywords) {
+                if (keyword.word().length() == length) {
+                    table[length][count++] = keyword;
+                }
+            }
+        }
+        return table;
+    }
+
+    private enum Role {
+        /** Matches on its own */
+        WORD,
+        /** "pull", only meaningful before "request" */
+        PULL,
+        /** "request", only matches right after "pull" */
+        AFTER_PULL
+    }
+
+    private record Keyword(String word, GitHubIntent intent, Role role) {}
+}
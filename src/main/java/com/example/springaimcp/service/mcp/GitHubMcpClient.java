@@ -1,107 +1,240 @@
 package com.example.springaimcp.service.mcp;
 
+import com.example.springaimcp.service.audit.AuditLog;
+import com.example.springaimcp.service.metrics.PromptMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 /**
  * Client for communicating with GitHub MCP (Model Context Protocol) server
  * 
  * This client handles communication with a GitHub MCP server that provides
- * GitHub API functionality through the MCP protocol.
+ * GitHub API functionality through the MCP protocol. Calls go through the "githubMcp"
+ * circuit breaker and bulkhead, so an unavailable or saturated server fails fast, and are
+ * spread over the server replicas by {@link McpEndpointPool}. Query results are parsed as they
+ * arrive into typed records by {@link McpResultReader}.
  */
 @Service
 public class GitHubMcpClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GitHubMcpClient.class);
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MCP_RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> MCP_TOOLS_TYPE =
+            new ParameterizedTypeReference<>() {};
     
-    private final WebClient mcpWebClient;
+    private static final String RESILIENCE_INSTANCE = "githubMcp";
+
+    private final McpEndpointPool endpoints;
+    private final McpQueryCache queryCache;
+    private final McpResultReader resultReader;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final PromptMetrics metrics;
+    private final AuditLog auditLog;
+    private final Duration timeout;
     private final ObjectMapper objectMapper;
 
-    public GitHubMcpClient(@Qualifier("mcpWebClient") WebClient mcpWebClient) {
-        this.mcpWebClient = mcpWebClient;
+    public GitHubMcpClient(McpEndpointPool endpoints,
+                           McpQueryCache queryCache,
+                           McpResultReader resultReader,
+                           CircuitBreakerRegistry circuitBreakerRegistry,
+                           BulkheadRegistry bulkheadRegistry,
+                           PromptMetrics metrics,
+                           AuditLog auditLog,
+                           @Value("${app.github.mcp.server.timeout:30s}") Duration timeout) {
+        this.endpoints = endpoints;
+        this.queryCache = queryCache;
+        this.resultReader = resultReader;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.timeout = timeout;
         this.objectMapper = new ObjectMapper();
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("MCP circuit breaker transitioned {}", event.getStateTransition()));
     }
 
     /**
-     * Execute a GitHub query through the MCP server
+     * Execute a GitHub query through the MCP server without blocking the caller
+     * 
+     * Identical concurrent queries share one upstream call and successful results are
+     * cached per operation type, see {@link McpQueryCache}.
      * 
      * @param query The natural language query about GitHub
-     * @return Map containing the MCP server response
+     * @return Mono emitting the MCP server response with its repositories, issues and pull requests
+     *         as {@link GitHubRepository}, {@link GitHubIssue} and {@link GitHubPullRequest} lists,
+     *         or an error response if the call failed
      */
-    public Map<String, Object> executeGitHubQuery(String query) {
-        logger.info("Executing GitHub MCP query: {}", query);
-        
-        try {
+    public Mono<Map<String, Object>> executeGitHubQuery(String query) {
+        return executeGitHubQuery(query, GitHubIntentClassifier.classify(query));
+    }
+
+    /**
+     * Execute a GitHub query whose intent the caller has already classified
+     */
+    public Mono<Map<String, Object>> executeGitHubQuery(String query, GitHubIntent intent) {
+        String operation = intent.operation();
+        return queryCache.get(operation, query, () -> fetchGitHubQuery(query, operation));
+    }
+
+    /**
+     * Call a single MCP tool by name, as requested by the LLM through function calling
+     *
+     * Tool calls are not cached here; repeated calls within one prompt are memoized by the caller.
+     *
+     * @param name      the tool name from the catalog
+     * @param arguments the arguments the model supplied
+     * @return Mono emitting the tool result, or an error response if the call failed
+     */
+    public Mono<Map<String, Object>> callTool(String name, Map<String, Object> arguments) {
+        return Mono.defer(() -> {
+            logger.debug("Calling GitHub MCP tool: {}", name);
+
+            Map<String, Object> toolRequest = new HashMap<>();
+            toolRequest.put("name", name);
+            toolRequest.put("arguments", arguments);
+            // Tool calls may have side effects, so they are never hedged
+            return exchange("/mcp/tools/call", toolRequest, name, false,
+                    response -> response.bodyToMono(MCP_RESPONSE_TYPE));
+        });
+    }
+
+    private Mono<Map<String, Object>> fetchGitHubQuery(String query, String operation) {
+        return Mono.defer(() -> {
+            logger.debug("Executing GitHub MCP query: {}", query);
+
             // Build MCP request payload
-            Map<String, Object> mcpRequest = buildMcpRequest(query);
-            
-            // Call MCP server
-            Mono<Map> responseMono = mcpWebClient
-                    .post()
-                    .uri("/mcp/github")
-                    .bodyValue(mcpRequest)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(30));
-            
-            Map<String, Object> response = responseMono.block();
-            
-            if (response != null) {
-                logger.info("MCP query executed successfully");
-                return response;
-            } else {
-                logger.warn("MCP server returned null response");
-                return createErrorResponse("MCP server returned empty response");
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error executing GitHub MCP query: {}", e.getMessage(), e);
-            return createErrorResponse("Error communicating with MCP server: " + e.getMessage());
-        }
+            Map<String, Object> mcpRequest = buildMcpRequest(query, operation);
+            return exchange("/mcp/github", mcpRequest, operation, true,
+                    response -> resultReader.read(response.bodyToFlux(DataBuffer.class), operation));
+        });
     }
 
     /**
-     * Get available GitHub tools from MCP server
+     * POST to the MCP server through the timeout, bulkhead and circuit breaker, mapping every
+     * failure to an error response
+     *
+     * Each call's outcome is recorded here, once: a caller giving up first, for example on its own
+     * deadline, counts as cancelled.
+     *
+     * @param hedgeable  whether the call is read-only and may be hedged on a second replica
+     * @param bodyReader reads the result from the response
      */
-    public List<Map<String, Object>> getAvailableTools() {
-        logger.info("Fetching available GitHub MCP tools");
-        
-        try {
-            Mono<List> responseMono = mcpWebClient
-                    .get()
-                    .uri("/mcp/tools")
-                    .retrieve()
-                    .bodyToMono(List.class)
-                    .timeout(Duration.ofSeconds(10));
-            
-            List<Map<String, Object>> tools = responseMono.block();
-            
-            if (tools != null) {
-                logger.info("Retrieved {} GitHub MCP tools", tools.size());
-                return tools;
-            } else {
-                logger.warn("No tools returned from MCP server");
-                return getDefaultTools();
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error fetching MCP tools: {}", e.getMessage(), e);
-            return getDefaultTools();
+    private Mono<Map<String, Object>> exchange(String uri, Map<String, Object> body, String operation,
+                                               boolean hedgeable,
+                                               Function<WebClient.ResponseSpec, Mono<Map<String, Object>>> bodyReader) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return endpoints.execute(client -> bodyReader.apply(client
+                            .post()
+                            .uri(uri)
+                            .bodyValue(body)
+                            .retrieve()), hedgeable)
+                    .timeout(timeout)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnNext(response -> {
+                        logger.debug("MCP {} call executed successfully", operation);
+                        recordCall(operation, "success", startNanos, recorded);
+                    })
+                    .switchIfEmpty(Mono.fromSupplier(() -> {
+                        logger.warn("MCP server returned null response");
+                        recordCall(operation, "error", startNanos, recorded);
+                        return createErrorResponse("MCP server returned empty response");
+                    }))
+                    .onErrorResume(CallNotPermittedException.class, e -> {
+                        logger.warn("MCP circuit breaker is open, skipping GitHub MCP {} call", operation);
+                        recordCall(operation, "circuit_open", startNanos, recorded);
+                        return Mono.just(createErrorResponse("MCP server circuit breaker is open"));
+                    })
+                    .onErrorResume(BulkheadFullException.class, e -> {
+                        logger.warn("Too many concurrent MCP calls, skipping GitHub MCP {} call", operation);
+                        recordCall(operation, "bulkhead_full", startNanos, recorded);
+                        return Mono.just(createErrorResponse("Too many concurrent MCP calls"));
+                    })
+                    .onErrorResume(TimeoutException.class, e -> {
+                        logger.warn("GitHub MCP {} call timed out after {}", operation, timeout);
+                        recordCall(operation, "timeout", startNanos, recorded);
+                        return Mono.just(createErrorResponse("MCP server did not answer within " + timeout));
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Error executing GitHub MCP {} call: {}", operation, e.getMessage(), e);
+                        recordCall(operation, "error", startNanos, recorded);
+                        return Mono.just(createErrorResponse("Error communicating with MCP server: " + e.getMessage()));
+                    })
+                    .doOnCancel(() -> recordCall(operation, "cancelled", startNanos, recorded));
+        });
+    }
+
+    private void recordCall(String operation, String outcome, long startNanos, AtomicBoolean recorded) {
+        if (recorded.compareAndSet(false, true)) {
+            metrics.recordMcpCall(operation, outcome);
+            auditLog.mcpCall(operation, outcome, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
         }
     }
 
     /**
-     * Build MCP request payload
+     * Get available GitHub tools from MCP server without blocking the caller,
+     * falling back to the default tools when the server is unavailable
+     */
+    public Mono<List<Map<String, Object>>> getAvailableTools() {
+        return fetchAvailableTools()
+                .onErrorResume(e -> {
+                    logger.error("Error fetching MCP tools: {}", e.getMessage(), e);
+                    return Mono.just(getDefaultTools());
+                });
+    }
+
+    /**
+     * Fetch available GitHub tools from MCP server, signalling an error when it is unavailable
+     */
+    public Mono<List<Map<String, Object>>> fetchAvailableTools() {
+        return Mono.defer(() -> {
+            logger.info("Fetching available GitHub MCP tools");
+
+            return endpoints.execute(client -> client
+                            .get()
+                            .uri("/mcp/tools")
+                            .retrieve()
+                            .bodyToMono(MCP_TOOLS_TYPE), true)
+                    .timeout(Duration.ofSeconds(10))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnNext(tools -> logger.info("Retrieved {} GitHub MCP tools", tools.size()))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("No tools returned from MCP server")));
+        });
+    }
+
+    /**
+     * Build MCP request payload (package-private for benchmarks)
      */
-    private Map<String, Object> buildMcpRequest(String query) {
+    Map<String, Object> buildMcpRequest(String query, String operation) {
         Map<String, Object> request = new HashMap<>();
         request.put("method", "query");
         request.put("query", query);
@@ -110,28 +243,31 @@ public class GitHubMcpClient {
         // Add query analysis to determine required tools
         Map<String, Object> params = new HashMap<>();
         params.put("analyze_intent", true);
-        params.put("max_results", 10);
-        
-        // Determine GitHub operation type based on query
-        String lowerQuery = query.toLowerCase();
-        if (lowerQuery.contains("repository") || lowerQuery.contains("repo")) {
-            params.put("operation", "repository");
-        } else if (lowerQuery.contains("issue")) {
-            params.put("operation", "issues");
-        } else if (lowerQuery.contains("pull request") || lowerQuery.contains("pr")) {
-            params.put("operation", "pull_requests");
-        } else {
-            params.put("operation", "general");
-        }
+        params.put("max_results", resultReader.getMaxResults());
+        params.put("operation", operation);
         
         request.put("parameters", params);
         return request;
     }
 
     /**
-     * Create error response
+     * Statistics of the MCP query cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return queryCache.stats();
+    }
+
+    /**
+     * Health, load and latency statistics of each MCP server replica
+     */
+    public List<Map<String, Object>> getEndpointStats() {
+        return endpoints.stats();
+    }
+
+    /**
+     * Create error response (package-private for the tool callbacks)
      */
-    private Map<String, Object> createErrorResponse(String message) {
+    Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("error", true);
         errorResponse.put("message", message);
@@ -143,7 +279,7 @@ public class GitHubMcpClient {
     /**
      * Get default tools when MCP server is unavailable
      */
-    private List<Map<String, Object>> getDefaultTools() {
+    public List<Map<String, Object>> getDefaultTools() {
         List<Map<String, Object>> defaultTools = new ArrayList<>();
         
         Map<String, Object> repoTool = new HashMap<>();
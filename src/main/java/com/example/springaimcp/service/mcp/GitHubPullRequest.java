@@ -0,0 +1,9 @@
+package com.example.springaimcp.service.mcp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Pull request from an MCP query result, with only the fields the answer uses
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GitHubPullRequest(Integer number, String title, String state, String author, String url) {}
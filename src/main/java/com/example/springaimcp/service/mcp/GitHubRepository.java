@@ -0,0 +1,10 @@
+package com.example.springaimcp.service.mcp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Repository from an MCP query result, with only the fields the answer uses
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GitHubRepository(String name, String fullName, String description, String url,
+                               Integer stars, String language) {}
@@ -0,0 +1,283 @@
+package com.example.springaimcp.service.mcp;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replicas of the GitHub MCP server with health probing, least-outstanding-requests balancing
+ * and optional hedging
+ *
+ * Each call goes to the healthy endpoint with the fewest calls in flight. Endpoints are probed
+ * in the background; one that fails {@code unhealthy-threshold} probes in a row gets no traffic
+ * until a probe succeeds again, and if none is healthy all of them are used. A hedgeable call
+ * that has not answered within the endpoint's latency percentile is repeated on another replica
+ * and the first answer wins. Only read-only calls may be hedged.
+ *
+ * The WebClient of each endpoint is built on its first call or probe rather than at startup.
+ */
+@Component
+public class McpEndpointPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpEndpointPool.class);
+
+    /** Samples an endpoint needs before its latency percentile is trusted as the hedge delay */
+    private static final long MIN_HEDGE_SAMPLES = 20;
+
+    private final WebClient webClient;
+    private final List<Endpoint> endpoints;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final Duration initialHedgeDelay;
+    private final Duration minHedgeDelay;
+    private final String healthPath;
+    private final Duration healthInterval;
+    private final Duration healthTimeout;
+    private final int unhealthyThreshold;
+    private Disposable probes;
+
+    public McpEndpointPool(@Lazy @Qualifier("mcpWebClient") WebClient webClient,
+                           @Value("${app.github.mcp.server.urls:${app.github.mcp.server.url:http://localhost:3000}}") List<String> urls,
+                           PromptMetrics metrics,
+                           @Value("${app.github.mcp.hedging.enabled:false}") boolean hedgingEnabled,
+                           @Value("${app.github.mcp.hedging.percentile:0.95}") double hedgePercentile,
+                           @Value("${app.github.mcp.hedging.initial-delay:500ms}") Duration initialHedgeDelay,
+                           @Value("${app.github.mcp.hedging.min-delay:20ms}") Duration minHedgeDelay,
+                           @Value("${app.github.mcp.health.path:/mcp/tools}") String healthPath,
+                           @Value("${app.github.mcp.health.interval:10s}") Duration healthInterval,
+                           @Value("${app.github.mcp.health.timeout:2s}") Duration healthTimeout,
+                           @Value("${app.github.mcp.health.unhealthy-threshold:2}") int unhealthyThreshold) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one MCP server URL is required");
+        }
+        this.webClient = webClient;
+        List<Endpoint> pool = new ArrayList<>();
+        for (String url : urls) {
+            String trimmed = url.trim();
+            pool.add(new Endpoint(trimmed, metrics.mcpEndpointTimer(trimmed, hedgePercentile)));
+        }
+        this.endpoints = List.copyOf(pool);
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.initialHedgeDelay = initialHedgeDelay;
+        this.minHedgeDelay = minHedgeDelay;
+        this.healthPath = healthPath;
+        this.healthInterval = healthInterval;
+        this.healthTimeout = healthTimeout;
+        this.unhealthyThreshold = unhealthyThreshold;
+    }
+
+    @PostConstruct
+    void start() {
+        probes = Flux.interval(healthInterval, healthInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(endpoints).flatMap(this::probe).then())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (probes != null) {
+            probes.dispose();
+        }
+    }
+
+    /**
+     * Run a call against the least loaded healthy endpoint
+     *
+     * @param call      the request to make with the endpoint's WebClient
+     * @param hedgeable whether the call is read-only and may be sent to a second replica
+     */
+    public <T> Mono<T> execute(Function<WebClient, Mono<T>> call, boolean hedgeable) {
+        return Mono.defer(() -> {
+            Endpoint primary = select(null);
+            Mono<T> first = attempt(primary, call);
+            if (!hedgeable || !hedgingEnabled || endpoints.size() < 2) {
+                return first;
+            }
+            Mono<T> hedge = Mono.delay(primary.hedgeDelay())
+                    .then(Mono.defer(() -> {
+                        Endpoint secondary = select(primary);
+                        if (secondary == null) {
+                            return Mono.<T>empty();
+                        }
+                        primary.hedgesSent.increment();
+                        logger.debug("Hedging MCP call to {} after {}", secondary.url, primary.hedgeDelay());
+                        return attempt(secondary, call);
+                    }));
+            // The slower attempt is cancelled as soon as one answers
+            return Mono.firstWithValue(first, hedge);
+        });
+    }
+
+    /**
+     * Per-endpoint health, load and latency statistics
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            HistogramSnapshot snapshot = endpoint.latency.takeSnapshot();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("url", endpoint.url);
+            entry.put("healthy", endpoint.healthy);
+            entry.put("outstanding", endpoint.outstanding.get());
+            entry.put("requests", endpoint.requests.sum());
+            entry.put("errors", endpoint.errors.sum());
+            entry.put("hedgesSent", endpoint.hedgesSent.sum());
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                percentiles.put("p" + trimPercentile(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+            }
+            entry.put("latencyMs", percentiles);
+            entry.put("hedgeDelayMs", endpoint.hedgeDelay().toMillis());
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    /**
+     * Least outstanding requests among healthy endpoints, ties broken at random
+     *
+     * @param exclude an endpoint not to pick, or null
+     * @return the endpoint, or null if there is no other endpoint than the excluded one
+     */
+    private Endpoint select(Endpoint exclude) {
+        boolean anyHealthy = endpoints.stream().anyMatch(endpoint -> endpoint.healthy && endpoint != exclude);
+        int offset = ThreadLocalRandom.current().nextInt(endpoints.size());
+        Endpoint best = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint candidate = endpoints.get((offset + i) % endpoints.size());
+            if (candidate == exclude || (anyHealthy && !candidate.healthy)) {
+                continue;
+            }
+            if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private <T> Mono<T> attempt(Endpoint endpoint, Function<WebClient, Mono<T>> call) {
+        return Mono.defer(() -> {
+            endpoint.outstanding.incrementAndGet();
+            endpoint.requests.increment();
+            long startNanos = System.nanoTime();
+            return call.apply(endpoint.client())
+                    .doOnSuccess(value -> endpoint.latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> endpoint.errors.increment())
+                    .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+        });
+    }
+
+    private Mono<Void> probe(Endpoint endpoint) {
+        return endpoint.client().get()
+                .uri(healthPath)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(healthTimeout)
+                .doOnSuccess(response -> endpoint.probeSucceeded())
+                .onErrorResume(e -> {
+                    endpoint.probeFailed(e);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> endpoint.refreshHedgeDelay())
+                .then();
+    }
+
+    private static String trimPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private final class Endpoint {
+        private final String url;
+        private final Timer latency;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder hedgesSent = new LongAdder();
+        private volatile boolean healthy = true;
+        private volatile Duration hedgeDelay = initialHedgeDelay;
+        private volatile WebClient client;
+        private int consecutiveFailures;
+
+        private Endpoint(String url, Timer latency) {
+            this.url = url;
+            this.latency = latency;
+        }
+
+        WebClient client() {
+            WebClient current = client;
+            if (current == null) {
+                synchronized (this) {
+                    current = client;
+                    if (current == null) {
+                        current = webClient.mutate().baseUrl(url).build();
+                        client = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        Duration hedgeDelay() {
+            return hedgeDelay;
+        }
+
+        synchronized void probeSucceeded() {
+            if (!healthy) {
+                logger.info("MCP endpoint {} is healthy again", url);
+            }
+            consecutiveFailures = 0;
+            healthy = true;
+        }
+
+        synchronized void probeFailed(Throwable e) {
+            consecutiveFailures++;
+            if (healthy && consecutiveFailures >= unhealthyThreshold) {
+                logger.warn("MCP endpoint {} failed {} health probes, taking it out of rotation: {}",
+                        url, consecutiveFailures, e.getMessage());
+                healthy = false;
+            }
+        }
+
+        /**
+         * Take the hedge delay from the latency percentile, once there are enough samples
+         */
+        void refreshHedgeDelay() {
+            HistogramSnapshot snapshot = latency.takeSnapshot();
+            if (snapshot.count() < MIN_HEDGE_SAMPLES) {
+                return;
+            }
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == hedgePercentile) {
+                    long nanos = (long) value.value(TimeUnit.NANOSECONDS);
+                    hedgeDelay = Duration.ofNanos(Math.max(nanos, minHedgeDelay.toNanos()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.springaimcp.service.mcp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing and TTL cache for GitHub MCP queries
+ *
+ * Identical queries that arrive while one is in flight share its upstream call. Completed
+ * results are kept for a TTL that depends on the MCP operation; error responses are never cached.
+ */
+@Component
+public class McpQueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpQueryCache.class);
+
+    private final boolean enabled;
+    private final Map<String, Duration> ttlByOperation;
+    private final Duration defaultTtl;
+    private final Cache<Key, Map<String, Object>> results;
+    private final Map<Key, Mono<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    public McpQueryCache(@Value("${app.github.mcp.cache.enabled:true}") boolean enabled,
+                         @Value("${app.github.mcp.cache.max-entries:1000}") long maxEntries,
+                         @Value("${app.github.mcp.cache.ttl.repository:10m}") Duration repositoryTtl,
+                         @Value("${app.github.mcp.cache.ttl.issues:1m}") Duration issuesTtl,
+                         @Value("${app.github.mcp.cache.ttl.pull-requests:1m}") Duration pullRequestsTtl,
+                         @Value("${app.github.mcp.cache.ttl.general:2m}") Duration generalTtl) {
+        this.enabled = enabled;
+        this.ttlByOperation = Map.of(
+                "repository", repositoryTtl,
+                "issues", issuesTtl,
+                "pull_requests", pullRequestsTtl,
+                "general", generalTtl);
+        this.defaultTtl = generalTtl;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<Key, Map<String, Object>>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Map<String, Object> value, long currentTime) {
+                        return ttlFor(key.operation()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Map<String, Object> value, long currentTime,
+                                                  long currentDuration) {
+                        return ttlFor(key.operation()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Map<String, Object> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Serve the query from cache, join an identical in-flight call, or start a new one with the loader
+     */
+    public Mono<Map<String, Object>> get(String operation, String query,
+                                         Supplier<Mono<Map<String, Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            Key key = new Key(operation, query.trim().toLowerCase(Locale.ROOT));
+
+            Map<String, Object> cached = results.getIfPresent(key);
+            if (cached != null) {
+                logger.debug("Serving MCP {} query from cache", operation);
+                return Mono.just(cached);
+            }
+
+            // cache() shares the single upstream call with every waiter; a waiter that
+            // cancels (for example on its own deadline) does not cancel it for the others
+            return inFlight.computeIfAbsent(key, k -> loader.get()
+                    .doOnNext(result -> {
+                        if (!isError(result)) {
+                            results.put(k, result);
+                        }
+                    })
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache());
+        });
+    }
+
+    /**
+     * Hit, miss and coalescing statistics since startup
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = results.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", results.estimatedSize());
+        result.put("inFlight", inFlight.size());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * How long a result of the MCP operation stays fresh; also caps caches built on top of it
+     */
+    public Duration ttlFor(String operation) {
+        return ttlByOperation.getOrDefault(operation, defaultTtl);
+    }
+
+    private static boolean isError(Map<String, Object> result) {
+        return result == null || Boolean.TRUE.equals(result.get("error"));
+    }
+
+    private record Key(String operation, String query) {}
+}
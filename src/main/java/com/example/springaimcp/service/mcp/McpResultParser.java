@@ -0,0 +1,353 @@
+package com.example.springaimcp.service.mcp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental parser of one /mcp/github response body into typed records
+ *
+ * The body is fed chunk by chunk to Jackson's non-blocking parser, so it is never buffered
+ * whole, and only the fields of {@link GitHubRepository}, {@link GitHubIssue} and
+ * {@link GitHubPullRequest} are materialized. Top-level scalars such as "status" are kept as
+ * they are; other nested values are skipped token by token. Each list keeps at most maxResults
+ * items. Parsing stops, leaving the rest of the body unread, once the list of the queried
+ * operation is full, maxItems items have been read, or maxBytes have been fed. A result cut
+ * short by a cap is marked "truncated".
+ *
+ * Not thread-safe; one instance parses one response.
+ */
+final class McpResultParser implements AutoCloseable {
+
+    private static final int NO_SKIP = Integer.MAX_VALUE;
+
+    private enum Section {
+        REPOSITORIES("repositories"), ISSUES("issues"), PULL_REQUESTS("pull_requests");
+
+        final String key;
+
+        Section(String key) {
+            this.key = key;
+        }
+
+        static Section ofField(String field) {
+            return switch (field) {
+                case "repositories" -> REPOSITORIES;
+                case "issues" -> ISSUES;
+                case "pull_requests", "pullRequests" -> PULL_REQUESTS;
+                default -> null;
+            };
+        }
+
+        static Section ofOperation(String operation) {
+            return switch (operation) {
+                case "repository" -> REPOSITORIES;
+                case "issues" -> ISSUES;
+                case "pull_requests" -> PULL_REQUESTS;
+                default -> null;
+            };
+        }
+    }
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final Section primary;
+    private final int maxResults;
+    private final int maxItems;
+    private final long maxBytes;
+
+    private final Map<String, Object> result = new LinkedHashMap<>();
+    private final Map<Section, List<Object>> sections = new LinkedHashMap<>();
+    private long bytes;
+    private int items;
+    private int depth;
+    private int skipDepth = NO_SKIP;
+    private boolean sawRoot;
+    private boolean done;
+    private boolean truncated;
+    private String rootField;
+    private String itemField;
+    private String nestedField;
+    private String nestedKey;
+    private Section section;
+    private List<Object> sectionItems;
+    private ItemFields item;
+
+    McpResultParser(JsonFactory jsonFactory, String operation, int maxResults, int maxItems, long maxBytes)
+            throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteBufferParser();
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.primary = Section.ofOperation(operation);
+        this.maxResults = maxResults;
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Parse the next chunk of the body; the buffer is fully consumed when this returns
+     *
+     * @return true once parsing has finished and no more input is needed
+     */
+    boolean feed(ByteBuffer chunk) throws IOException {
+        if (done) {
+            return true;
+        }
+        long allowed = maxBytes - bytes;
+        if (chunk.remaining() > allowed) {
+            chunk = chunk.slice(chunk.position(), (int) allowed);
+        }
+        bytes += chunk.remaining();
+        feeder.feedInput(chunk);
+        drain();
+        if (!done && bytes >= maxBytes) {
+            truncated = true;
+            done = true;
+        }
+        return done;
+    }
+
+    /**
+     * The parsed result once the body has ended or parsing has stopped
+     *
+     * @return the result, or null for an empty body
+     * @throws IOException if the body ended in the middle of the JSON document
+     */
+    Map<String, Object> finish() throws IOException {
+        if (!done) {
+            feeder.endOfInput();
+            drain();
+            if (!done && sawRoot) {
+                throw new IOException("MCP response ended after " + bytes + " bytes in the middle of the JSON document");
+            }
+        }
+        if (!sawRoot) {
+            return null;
+        }
+        // An item cut off by the byte cap is dropped
+        for (Map.Entry<Section, List<Object>> entry : sections.entrySet()) {
+            result.put(entry.getKey().key, entry.getValue());
+        }
+        if (truncated) {
+            result.put("truncated", true);
+        }
+        return result;
+    }
+
+    long bytesRead() {
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Nothing to release beyond the parser's own buffers
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    if (depth <= skipDepth) {
+                        startContainer(token == JsonToken.START_OBJECT);
+                    }
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (depth == skipDepth) {
+                        skipDepth = NO_SKIP;
+                    } else if (depth < skipDepth) {
+                        endContainer();
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth <= skipDepth) {
+                        fieldName(parser.currentName());
+                    }
+                }
+                default -> {
+                    if (depth <= skipDepth) {
+                        scalar(token);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Depth 1 is the root object, 2 a section list, 3 an item and 4 an author object in an item
+     */
+    private void startContainer(boolean object) {
+        switch (depth) {
+            case 1 -> {
+                if (object) {
+                    sawRoot = true;
+                } else {
+                    skip();
+                }
+            }
+            case 2 -> {
+                section = object ? null : Section.ofField(rootField);
+                if (section != null) {
+                    sectionItems = sections.computeIfAbsent(section, key -> new ArrayList<>());
+                } else {
+                    skip();
+                }
+            }
+            case 3 -> {
+                if (!object) {
+                    skip();
+                } else if (sectionItems.size() >= maxResults) {
+                    // Only reached for lists other than the primary one, which stops parsing when full
+                    truncated = true;
+                    skip();
+                } else {
+                    item = new ItemFields();
+                    itemField = null;
+                }
+            }
+            case 4 -> {
+                if (object && ItemFields.isAuthorField(itemField)) {
+                    nestedField = itemField;
+                    nestedKey = null;
+                } else {
+                    skip();
+                }
+            }
+            default -> skip();
+        }
+    }
+
+    private void endContainer() {
+        switch (depth) {
+            case 0 -> done = true;
+            case 1 -> section = null;
+            case 2 -> {
+                sectionItems.add(item.build(section));
+                item = null;
+                items++;
+                if (section == primary && sectionItems.size() >= maxResults) {
+                    done = true;
+                } else if (items >= maxItems) {
+                    truncated = true;
+                    done = true;
+                }
+            }
+            case 3 -> nestedField = null;
+            default -> {
+                // Containers below depth 4 are always skipped
+            }
+        }
+    }
+
+    private void fieldName(String name) {
+        switch (depth) {
+            case 1 -> rootField = name;
+            case 3 -> itemField = name;
+            case 4 -> nestedKey = name;
+            default -> {
+                // Objects at other depths are skipped
+            }
+        }
+    }
+
+    private void scalar(JsonToken token) throws IOException {
+        switch (depth) {
+            case 1 -> result.put(rootField, scalarValue(token));
+            case 3 -> {
+                if (itemField != null && token != JsonToken.VALUE_NULL) {
+                    item.set(itemField, parser);
+                }
+            }
+            case 4 -> {
+                if ("login".equals(nestedKey) && token == JsonToken.VALUE_STRING) {
+                    item.author = parser.getText();
+                }
+            }
+            default -> {
+                // Scalar list elements carry nothing the records use
+            }
+        }
+    }
+
+    private Object scalarValue(JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Skip the container just started, up to its matching end token
+     */
+    private void skip() {
+        skipDepth = depth - 1;
+    }
+
+    /**
+     * Fields of the item being parsed, under their GitHub API names or the shorter names MCP
+     * servers commonly use
+     */
+    private static final class ItemFields {
+        String name;
+        String fullName;
+        String description;
+        String htmlUrl;
+        String url;
+        Integer stars;
+        String language;
+        Integer number;
+        String title;
+        String state;
+        String author;
+
+        static boolean isAuthorField(String field) {
+            return "user".equals(field) || "author".equals(field) || "owner".equals(field);
+        }
+
+        void set(String field, JsonParser parser) throws IOException {
+            switch (field) {
+                case "name" -> name = parser.getText();
+                case "full_name", "fullName" -> fullName = parser.getText();
+                case "description" -> description = parser.getText();
+                case "html_url", "htmlUrl" -> htmlUrl = parser.getText();
+                case "url" -> url = parser.getText();
+                case "stargazers_count", "stars" -> stars = parser.getValueAsInt();
+                case "language" -> language = parser.getText();
+                case "number" -> number = parser.getValueAsInt();
+                case "title" -> title = parser.getText();
+                case "state" -> state = parser.getText();
+                case "user", "author", "owner" -> author = parser.getText();
+                default -> {
+                    // Not used by any record
+                }
+            }
+        }
+
+        Object build(Section section) {
+            String link = htmlUrl != null ? htmlUrl : url;
+            return switch (section) {
+                case REPOSITORIES -> new GitHubRepository(name,
+                        fullName != null || author == null || name == null ? fullName : author + '/' + name,
+                        description, link, stars, language);
+                case ISSUES -> new GitHubIssue(number, title, state, author, link);
+                case PULL_REQUESTS -> new GitHubPullRequest(number, title, state, author, link);
+            };
+        }
+    }
+}
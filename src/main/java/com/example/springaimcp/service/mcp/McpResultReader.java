@@ -0,0 +1,92 @@
+package com.example.springaimcp.service.mcp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Reads MCP query results from the response body as it arrives, see {@link McpResultParser}
+ *
+ * Once a cap is reached the rest of the body is not read and the connection is closed rather
+ * than drained. The body is never aggregated, so WebClient's in-memory buffer limit does not
+ * apply; max-bytes takes its place.
+ */
+@Component
+public class McpResultReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpResultReader.class);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int maxResults;
+    private final int maxItems;
+    private final long maxBytes;
+
+    public McpResultReader(@Value("${app.github.mcp.response.max-results:10}") int maxResults,
+                           @Value("${app.github.mcp.response.max-items:100}") int maxItems,
+                           @Value("${app.github.mcp.response.max-bytes:1MB}") DataSize maxBytes) {
+        this.maxResults = maxResults;
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes.toBytes();
+    }
+
+    /**
+     * Items requested per list, sent to the MCP server as max_results
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Parse a /mcp/github response body
+     *
+     * @param operation the MCP operation of the query; parsing stops once its list is full
+     * @return Mono emitting the result map with typed item lists, or empty for an empty body
+     */
+    public Mono<Map<String, Object>> read(Flux<DataBuffer> body, String operation) {
+        return Mono.using(
+                () -> new McpResultParser(jsonFactory, operation, maxResults, maxItems, maxBytes),
+                parser -> body
+                        .map(buffer -> {
+                            try {
+                                return feed(parser, buffer);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        .takeUntil(Boolean::booleanValue)
+                        .then(Mono.fromCallable(() -> {
+                            Map<String, Object> result = parser.finish();
+                            if (result != null && result.containsKey("truncated")) {
+                                logger.debug("MCP {} result truncated after {} bytes", operation, parser.bytesRead());
+                            }
+                            return result;
+                        })),
+                McpResultParser::close);
+    }
+
+    private static boolean feed(McpResultParser parser, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                ByteBuffer chunk = chunks.next();
+                if (parser.feed(chunk)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.springaimcp.service.mcp;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact text rendering of MCP query results, one line per item
+ *
+ * Used for the enrichment block appended to answers and for grounding data in prompts, so
+ * both stay small however many fields the MCP server returns.
+ */
+public final class McpResultRenderer {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 120;
+
+    private McpResultRenderer() {}
+
+    /**
+     * Append the repositories, issues, pull requests and status of the result
+     */
+    public static StringBuilder render(StringBuilder out, Map<String, Object> result) {
+        section(out, "\n📁 **Repositories:**\n", result.get("repositories"));
+        section(out, "\n🎯 **Issues:**\n", result.get("issues"));
+        section(out, "\n🔀 **Pull requests:**\n", result.get("pull_requests"));
+        Object status = result.get("status");
+        if (status != null) {
+            out.append("\n📊 **Status:** ").append(status);
+            if (Boolean.TRUE.equals(result.get("truncated"))) {
+                out.append(" (truncated)");
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The rendered result as a string, without a leading newline
+     */
+    public static String render(Map<String, Object> result) {
+        StringBuilder out = render(new StringBuilder(), result);
+        return out.length() > 0 && out.charAt(0) == '\n' ? out.substring(1) : out.toString();
+    }
+
+    private static void section(StringBuilder out, String header, Object items) {
+        if (!(items instanceof List<?> list)) {
+            return;
+        }
+        out.append(header);
+        if (list.isEmpty()) {
+            out.append("- none\n");
+        }
+        for (Object item : list) {
+            out.append("- ");
+            if (item instanceof GitHubRepository repository) {
+                repository(out, repository);
+            } else if (item instanceof GitHubIssue issue) {
+                numbered(out, issue.number(), issue.state(), issue.title(), issue.author());
+            } else if (item instanceof GitHubPullRequest pullRequest) {
+                numbered(out, pullRequest.number(), pullRequest.state(), pullRequest.title(), pullRequest.author());
+            } else {
+                out.append(item);
+            }
+            out.append('\n');
+        }
+    }
+
+    private static void repository(StringBuilder out, GitHubRepository repository) {
+        out.append(repository.fullName() != null ? repository.fullName() : repository.name());
+        if (repository.stars() != null) {
+            out.append(" ★").append(repository.stars());
+        }
+        if (repository.language() != null) {
+            out.append(" (").append(repository.language()).append(')');
+        }
+        String description = repository.description();
+        if (description != null && !description.isBlank()) {
+            out.append(": ");
+            if (description.length() > MAX_DESCRIPTION_LENGTH) {
+                out.append(description, 0, MAX_DESCRIPTION_LENGTH).append('…');
+            } else {
+                out.append(description);
+            }
+        }
+    }
+
+    private static void numbered(StringBuilder out, Integer number, String state, String title, String author) {
+        if (number != null) {
+            out.append('#').append(number).append(' ');
+        }
+        if (state != null) {
+            out.append('[').append(state).append("] ");
+        }
+        out.append(title != null ? title : "(untitled)");
+        if (author != null) {
+            out.append(" (@").append(author).append(')');
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.springaimcp.service.mcp;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exposes the MCP tool catalog to the LLM as Spring AI function callbacks
+ *
+ * One callback is built per available tool and reused until the catalog changes. Each tool call
+ * has its own deadline; a failed or timed-out call is returned to the model as an error result
+ * so it can answer without that tool. Calls made inside a {@link Scope} are memoized by tool
+ * name and arguments, so a model that repeats a call while looping is served from memory.
+ *
+ * Spring AI invokes the callbacks on the thread that called the chat model, one tool call after
+ * another, and each callback blocks until its MCP call ends. That is what lets the scope live in
+ * a thread local, and also why the tool calls of a turn do not run in parallel.
+ */
+@Component
+public class McpToolCallbacks {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolCallbacks.class);
+
+    private static final TypeReference<Map<String, Object>> ARGUMENTS_TYPE = new TypeReference<>() {};
+    private static final String EMPTY_SCHEMA = "{\"type\":\"object\",\"properties\":{}}";
+
+    private final GitHubMcpClient gitHubMcpClient;
+    private final McpToolCatalog toolCatalog;
+    private final PromptMetrics metrics;
+    private final Duration callTimeout;
+    private final ObjectMapper objectMapper;
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private volatile Registration registration = new Registration(null, List.of());
+
+    public McpToolCallbacks(GitHubMcpClient gitHubMcpClient,
+                            McpToolCatalog toolCatalog,
+                            PromptMetrics metrics,
+                            @Value("${app.ai.tools.call-timeout:10s}") Duration callTimeout) {
+        this.gitHubMcpClient = gitHubMcpClient;
+        this.toolCatalog = toolCatalog;
+        this.metrics = metrics;
+        this.callTimeout = callTimeout;
+        // Sorted keys make logically equal arguments produce the same memo key
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Callbacks for the tools currently available in the catalog; empty while only the fallback is known
+     */
+    public List<FunctionCallback> callbacks() {
+        McpToolCatalog.Snapshot snapshot = toolCatalog.getSnapshot();
+        Registration current = registration;
+        if (!snapshot.etag().equals(current.etag())) {
+            current = new Registration(snapshot.etag(), snapshot.fallback() ? List.of() : buildCallbacks(snapshot.tools()));
+            registration = current;
+        }
+        return current.callbacks();
+    }
+
+    /**
+     * Open a memo scope on the current thread; close it when the chat model call returns
+     */
+    public Scope openScope() {
+        Scope scope = new Scope();
+        currentScope.set(scope);
+        return scope;
+    }
+
+    private List<FunctionCallback> buildCallbacks(List<Map<String, Object>> tools) {
+        List<FunctionCallback> callbacks = new ArrayList<>();
+        for (Map<String, Object> tool : tools) {
+            Object name = tool.get("name");
+            if (name == null || Boolean.FALSE.equals(tool.get("available"))) {
+                continue;
+            }
+            Object description = tool.get("description");
+            callbacks.add(new McpToolCallback(name.toString(),
+                    description != null ? description.toString() : name.toString(),
+                    schemaOf(tool)));
+        }
+        logger.info("Registered {} MCP tools for function calling", callbacks.size());
+        return List.copyOf(callbacks);
+    }
+
+    /**
+     * JSON schema of the tool input, taken from the MCP "inputSchema" (or "parameters") field
+     */
+    private String schemaOf(Map<String, Object> tool) {
+        Object schema = tool.containsKey("inputSchema") ? tool.get("inputSchema") : tool.get("parameters");
+        if (schema == null) {
+            return EMPTY_SCHEMA;
+        }
+        try {
+            return schema instanceof String text ? text : objectMapper.writeValueAsString(schema);
+        } catch (JsonProcessingException e) {
+            return EMPTY_SCHEMA;
+        }
+    }
+
+    private String invoke(String name, String functionInput) {
+        Map<String, Object> arguments;
+        String argumentsKey;
+        try {
+            arguments = functionInput == null || functionInput.isBlank()
+                    ? Map.of()
+                    : objectMapper.readValue(functionInput, ARGUMENTS_TYPE);
+            argumentsKey = objectMapper.writeValueAsString(arguments);
+        } catch (JsonProcessingException e) {
+            return toJson(gitHubMcpClient.createErrorResponse("Invalid arguments for tool " + name));
+        }
+
+        Scope scope = currentScope.get();
+        String memoKey = name + '\u0000' + argumentsKey;
+        if (scope != null) {
+            scope.invoked.add(name);
+            String memoized = scope.memo.get(memoKey);
+            if (memoized != null) {
+                logger.debug("Serving repeated MCP tool call {} from the request memo", name);
+                metrics.recordMcpCall(name, "memoized");
+                return memoized;
+            }
+        }
+
+        Map<String, Object> result = gitHubMcpClient.callTool(name, arguments)
+                .timeout(callTimeout)
+                .onErrorResume(TimeoutException.class, e -> {
+                    // The MCP client records the abandoned call as cancelled
+                    logger.warn("MCP tool {} exceeded its {} deadline", name, callTimeout);
+                    return Mono.just(gitHubMcpClient.createErrorResponse("Tool " + name + " timed out"));
+                })
+                .block();
+
+        String json = toJson(result);
+        if (scope != null && result != null && !Boolean.TRUE.equals(result.get("error"))) {
+            scope.memo.put(memoKey, json);
+        }
+        return json;
+    }
+
+    private String toJson(Map<String, Object> result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(result);
+        }
+    }
+
+    /**
+     * Memo and record of the tool calls made during one prompt
+     */
+    public final class Scope implements AutoCloseable {
+        private final Map<String, String> memo = new HashMap<>();
+        private final List<String> invoked = new ArrayList<>();
+
+        private Scope() {}
+
+        /**
+         * Names of the tools the model called, in call order, including memoized repeats
+         */
+        public List<String> invokedTools() {
+            return List.copyOf(invoked);
+        }
+
+        @Override
+        public void close() {
+            currentScope.remove();
+        }
+    }
+
+    private record Registration(String etag, List<FunctionCallback> callbacks) {}
+
+    /**
+     * Function callback that forwards the model's call to one MCP tool
+     */
+    private final class McpToolCallback implements FunctionCallback {
+        private final String name;
+        private final String description;
+        private final String inputTypeSchema;
+
+        private McpToolCallback(String name, String description, String inputTypeSchema) {
+            this.name = name;
+            this.description = description;
+            this.inputTypeSchema = inputTypeSchema;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String getInputTypeSchema() {
+            return inputTypeSchema;
+        }
+
+        @Override
+        public String call(String functionInput) {
+            return invoke(name, functionInput);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.springaimcp.service.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory GitHub MCP tool catalog refreshed in the background
+ *
+ * The catalog is loaded at startup and refreshed on a fixed interval. Readers always get the
+ * current snapshot without touching the MCP server; a failed refresh keeps the previous snapshot.
+ */
+@Component
+public class McpToolCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolCatalog.class);
+
+    private final GitHubMcpClient gitHubMcpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration refreshInterval;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private Disposable refreshes;
+
+    public McpToolCatalog(GitHubMcpClient gitHubMcpClient,
+                          ObjectMapper objectMapper,
+                          @Value("${app.github.mcp.tools.refresh-interval:5m}") Duration refreshInterval) {
+        this.gitHubMcpClient = gitHubMcpClient;
+        this.objectMapper = objectMapper;
+        this.refreshInterval = refreshInterval;
+        this.snapshot.set(newSnapshot(gitHubMcpClient.getDefaultTools(), true));
+    }
+
+    @PostConstruct
+    void start() {
+        refreshes = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refreshes != null) {
+            refreshes.dispose();
+        }
+    }
+
+    /**
+     * Current catalog snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Fetch the catalog from the MCP server and replace the snapshot on success
+     */
+    public Mono<Snapshot> refresh() {
+        return gitHubMcpClient.fetchAvailableTools()
+                .map(tools -> {
+                    Snapshot refreshed = newSnapshot(tools, false);
+                    snapshot.set(refreshed);
+                    return refreshed;
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Refreshing MCP tool catalog failed, keeping catalog from {}: {}",
+                            snapshot.get().fetchedAt(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Snapshot newSnapshot(List<Map<String, Object>> tools, boolean fallback) {
+        return new Snapshot(List.copyOf(tools), Instant.now(), etagOf(tools), fallback);
+    }
+
+    private String etagOf(List<Map<String, Object>> tools) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(tools));
+        } catch (JsonProcessingException e) {
+            return Integer.toHexString(tools.hashCode());
+        }
+    }
+
+    /**
+     * Immutable view of the catalog
+     *
+     * @param tools     the tool descriptors
+     * @param fetchedAt when the tools were last fetched, or when the fallback was installed
+     * @param etag      content hash of the tools, stable across refreshes that return the same catalog
+     * @param fallback  true while the MCP server has not yet returned a catalog
+     */
+    public record Snapshot(List<Map<String, Object>> tools, Instant fetchedAt, String etag, boolean fallback) {}
+}
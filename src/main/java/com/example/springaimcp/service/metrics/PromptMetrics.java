@@ -0,0 +1,213 @@
+package com.example.springaimcp.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+
+/**
+ * Micrometer instrumentation of the prompt pipeline
+ *
+ * Meters are registered once and held in fields or maps, so recording on the hot path is a
+ * map lookup at most and never goes through the registry.
+ */
+@Component
+public class PromptMetrics {
+
+    /**
+     * Stages of prompt processing, used as the "stage" tag of the prompt.stage timer
+     */
+    public enum Stage {
+        PROMPT_BUILD, MCP, LLM, ENRICH, SERIALIZATION, TOTAL;
+
+        final String tag = name().toLowerCase();
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final Counter estimatedPromptTokens;
+    private final Counter estimatedCompletionTokens;
+    private final Map<String, Counter> mcpCalls = new ConcurrentHashMap<>();
+    private final Map<String, Counter> admissions = new ConcurrentHashMap<>();
+    private final Map<String, Counter> llmRoutes = new ConcurrentHashMap<>();
+    private final Map<String, Counter> jobs = new ConcurrentHashMap<>();
+    private final Timer jobWait;
+    private final Counter auditWritten;
+    private final Counter auditDropped;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PromptMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("prompt.stage")
+                    .description("Duration of each stage of prompt processing")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.promptTokens = tokenCounter("prompt", "provider");
+        this.completionTokens = tokenCounter("completion", "provider");
+        this.estimatedPromptTokens = tokenCounter("prompt", "estimated");
+        this.estimatedCompletionTokens = tokenCounter("completion", "estimated");
+        this.jobWait = Timer.builder("prompt.jobs.wait")
+                .description("Time prompt jobs wait in the queue before a worker picks them up")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.auditWritten = auditCounter("written");
+        this.auditDropped = auditCounter("dropped");
+        registry.gauge("prompt.inflight", inFlight);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStageMillis(Stage stage, long millis) {
+        stageTimers.get(stage).record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Count tokens of one LLM call
+     *
+     * @param estimated true when the counts were estimated locally because the provider reported none
+     */
+    public void recordTokens(long prompt, long completion, boolean estimated) {
+        (estimated ? estimatedPromptTokens : promptTokens).increment(prompt);
+        (estimated ? estimatedCompletionTokens : completionTokens).increment(completion);
+    }
+
+    /**
+     * Count one MCP call by operation and outcome (success, error, timeout, cancelled, circuit_open,
+     * bulkhead_full), or a tool call served from the request memo (memoized)
+     */
+    public void recordMcpCall(String operation, String outcome) {
+        mcpCalls.computeIfAbsent(operation + '|' + outcome, key -> Counter.builder("mcp.calls")
+                .description("GitHub MCP calls by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Count one admission decision by outcome (accepted, limit, quota)
+     */
+    public void recordAdmission(String outcome) {
+        admissions.computeIfAbsent(outcome, key -> Counter.builder("prompt.admission")
+                .description("Admission control decisions for prompts by outcome")
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Count one LLM backend attempt by outcome (success, failover, error)
+     */
+    public void recordLlmRoute(String backend, String outcome) {
+        llmRoutes.computeIfAbsent(backend + '|' + outcome, key -> Counter.builder("llm.routing")
+                .description("LLM backend attempts by backend and outcome")
+                .tag("backend", backend)
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Latency timer of one MCP endpoint, publishing p50, p95, p99 and the hedging percentile
+     * over a one minute window
+     */
+    public Timer mcpEndpointTimer(String endpoint, double hedgePercentile) {
+        double[] percentiles = DoubleStream.of(0.5, 0.95, 0.99, hedgePercentile).distinct().sorted().toArray();
+        return Timer.builder("mcp.endpoint.latency")
+                .description("Latency of successful calls to each GitHub MCP endpoint")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(percentiles)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(registry);
+    }
+
+    /**
+     * Record how long a prompt job waited in the queue before a worker picked it up
+     */
+    public void recordJobWait(long nanos) {
+        jobWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count one prompt job event by outcome (queued, rejected, succeeded, failed)
+     */
+    public void recordJob(String outcome) {
+        jobs.computeIfAbsent(outcome, key -> Counter.builder("prompt.jobs")
+                .description("Asynchronous prompt jobs by outcome")
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Count audit events written to the audit log
+     */
+    public void recordAuditWritten(long count) {
+        auditWritten.increment(count);
+    }
+
+    /**
+     * Count one audit event dropped because the audit buffer was full
+     */
+    public void recordAuditDropped() {
+        auditDropped.increment();
+    }
+
+    /**
+     * Register a gauge sampled from the given supplier
+     */
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value).description(description).register(registry);
+    }
+
+    /**
+     * Count the Mono as in flight from subscription until it terminates or is cancelled
+     */
+    public <T> Mono<T> trackInFlight(Mono<T> mono) {
+        return Mono.defer(() -> {
+            inFlight.incrementAndGet();
+            return mono.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Count the Flux as in flight from subscription until it terminates or is cancelled
+     */
+    public <T> Flux<T> trackInFlight(Flux<T> flux) {
+        return Flux.defer(() -> {
+            inFlight.incrementAndGet();
+            return flux.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private Counter auditCounter(String outcome) {
+        return Counter.builder("audit.events")
+                .description("Audit events by outcome; dropped when the audit buffer was full")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter tokenCounter(String type, String source) {
+        return Counter.builder("llm.tokens")
+                .description("LLM tokens by type; source=estimated when the provider reported no usage")
+                .tag("type", type)
+                .tag("source", source)
+                .register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.springaimcp.service.prompt;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Assembles LLM prompts from a constant system message and a token-budgeted user message
+ *
+ * The system message never changes, so every request starts with the same prefix and the user
+ * message alone identifies a prompt for the response cache. At about 100 tokens that prefix is
+ * far below the 1024 tokens from which OpenAI caches prompt prefixes, so it does not by itself
+ * earn provider-side prompt caching. The user message carries the request context, any MCP
+ * grounding data and the prompt itself. When they exceed the token budget, context and grounding are trimmed:
+ * each gets up to half of the room left after the prompt, and either can use what the other
+ * leaves unused.
+ */
+@Component
+public class PromptAssembler {
+
+    static final String SYSTEM_PREFIX = """
+            You are an AI assistant with access to GitHub tools through MCP (Model Context Protocol).
+            You can help with GitHub-related queries including repository information, issues, pull requests, and more.
+
+            Available GitHub capabilities:
+            - Repository information and statistics
+            - Issue management and tracking
+            - Pull request analysis
+            - Code search and file operations
+            - Branch and commit information
+            """;
+
+    private static final SystemMessage SYSTEM_MESSAGE = new SystemMessage(SYSTEM_PREFIX);
+
+    private static final String CONTEXT_HEADER = "Context:\n";
+    private static final String GROUNDING_HEADER = "Use the following GitHub data from the MCP server to ground your answer:\n";
+    private static final String PROMPT_HEADER = "User prompt: ";
+    private static final String TRIMMED_MARKER = " [...] ";
+
+    /** Tokens the chat format adds around each message */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final TokenCounter tokenCounter;
+    private final int tokenBudget;
+    private final int fixedTokens;
+
+    public PromptAssembler(TokenCounter tokenCounter,
+                           @Value("${app.ai.prompt.token-budget:6000}") int tokenBudget) {
+        this.tokenCounter = tokenCounter;
+        this.tokenBudget = tokenBudget;
+        this.fixedTokens = tokenCounter.count(SYSTEM_PREFIX) + 2 * MESSAGE_OVERHEAD_TOKENS
+                + tokenCounter.count(CONTEXT_HEADER) + tokenCounter.count(GROUNDING_HEADER)
+                + tokenCounter.count(PROMPT_HEADER) + 2 * tokenCounter.count(TRIMMED_MARKER);
+    }
+
+    /**
+     * Assemble the prompt messages
+     *
+     * @param prompt    the user prompt, always included in full
+     * @param context   optional request context; trimmed from the front so the latest part is kept
+     * @param grounding optional rendered MCP data; trimmed from the end
+     */
+    public AssembledPrompt assemble(String prompt, String context, String grounding) {
+        int promptTokens = tokenCounter.count(prompt);
+        int contextTokens = tokenCounter.count(context);
+        int groundingTokens = tokenCounter.count(grounding);
+
+        int available = Math.max(0, tokenBudget - fixedTokens - promptTokens);
+        int groundingAllowance = Math.min(groundingTokens, Math.max(available / 2, available - contextTokens));
+        int contextAllowance = Math.min(contextTokens, available - groundingAllowance);
+
+        StringBuilder user = new StringBuilder();
+        if (contextAllowance > 0) {
+            user.append(CONTEXT_HEADER);
+            if (contextAllowance < contextTokens) {
+                user.append(TRIMMED_MARKER).append(tokenCounter.truncate(context, contextAllowance, true));
+            } else {
+                user.append(context);
+            }
+            user.append("\n\n");
+        }
+        if (groundingAllowance > 0) {
+            user.append(GROUNDING_HEADER);
+            if (groundingAllowance < groundingTokens) {
+                user.append(tokenCounter.truncate(grounding, groundingAllowance, false)).append(TRIMMED_MARKER);
+            } else {
+                user.append(grounding);
+            }
+            user.append("\n\n");
+        }
+        user.append(PROMPT_HEADER).append(prompt);
+
+        String userText = user.toString();
+        int estimatedTokens = fixedTokens + promptTokens + contextAllowance + groundingAllowance;
+        return new AssembledPrompt(List.of(SYSTEM_MESSAGE, new UserMessage(userText)), userText, estimatedTokens);
+    }
+
+    /**
+     * Assembled prompt messages
+     *
+     * @param messages        the constant system message followed by the user message
+     * @param userText        the user message text; the only part that varies between requests
+     * @param estimatedTokens local estimate of the prompt size in tokens
+     */
+    public record AssembledPrompt(List<Message> messages, String userText, int estimatedTokens) {}
+}
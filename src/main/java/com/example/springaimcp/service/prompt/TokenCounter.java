@@ -0,0 +1,47 @@
+package com.example.springaimcp.service.prompt;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local token counting with the cl100k_base encoding used by the GPT-4 family
+ */
+@Component
+public class TokenCounter {
+
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : encoding.countTokens(text);
+    }
+
+    /**
+     * Cut text down to at most maxTokens tokens
+     *
+     * @param keepTail keep the end of the text (for histories, where the latest part matters most)
+     *                 instead of the beginning
+     */
+    public String truncate(String text, int maxTokens, boolean keepTail) {
+        if (maxTokens <= 0 || text == null || text.isEmpty()) {
+            return "";
+        }
+        int tokens = count(text);
+        if (tokens <= maxTokens) {
+            return text;
+        }
+        // Start from the proportional length and shrink until it fits; usually one or two counts
+        int length = (int) ((long) text.length() * maxTokens / tokens);
+        String cut = slice(text, length, keepTail);
+        while (length > 0 && count(cut) > maxTokens) {
+            length = length * 9 / 10;
+            cut = slice(text, length, keepTail);
+        }
+        return cut;
+    }
+
+    private static String slice(String text, int length, boolean keepTail) {
+        return keepTail ? text.substring(text.length() - length) : text.substring(0, length);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.springaimcp.service.warmup;
+
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.service.AiMcpService;
+import com.example.springaimcp.service.McpIntegrationMode;
+import com.example.springaimcp.service.audit.AuditLog;
+import com.example.springaimcp.service.cache.DiskResponseCache;
+import com.example.springaimcp.service.cache.LlmResponseCache;
+import com.example.springaimcp.service.cache.SemanticResponseCache;
+import com.example.springaimcp.service.conversation.ConversationStore;
+import com.example.springaimcp.service.embedding.HashingPromptEmbedder;
+import com.example.springaimcp.service.llm.ChatOptionsFactory;
+import com.example.springaimcp.service.llm.RoutingChatModel;
+import com.example.springaimcp.service.mcp.GitHubMcpClient;
+import com.example.springaimcp.service.mcp.McpEndpointPool;
+import com.example.springaimcp.service.mcp.McpQueryCache;
+import com.example.springaimcp.service.mcp.McpResultReader;
+import com.example.springaimcp.service.mcp.McpToolCallbacks;
+import com.example.springaimcp.service.mcp.McpToolCatalog;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import com.example.springaimcp.service.prompt.PromptAssembler;
+import com.example.springaimcp.service.prompt.TokenCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Readies the application before it reports ready to take traffic
+ *
+ * Runs before readiness changes to ACCEPTING_TRAFFIC. It waits for the LLM clients built in the
+ * background and, when app.warmup.enabled is set, runs prompts through
+ * {@link AiMcpService#processPrompt} until the iteration count or the time limit is reached,
+ * so the JIT has compiled the hot path before the first real request. The warm-up service is
+ * wired to in-process LLM and MCP stubs, throwaway metrics and a disabled audit log, so nothing
+ * leaves the process and the application's metrics, caches and audit trail are untouched. A
+ * failing warm-up is logged and does not hold up startup.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String STUB_MCP_RESPONSE = """
+            {"status":"success","repositories":[\
+            {"name":"service","full_name":"example/service","description":"Backend service handling orders",\
+            "stargazers_count":120,"language":"Java","html_url":"https://github.com/example/service"}],\
+            "issues":[{"number":1001,"title":"Timeouts when calling the payment gateway","state":"open",\
+            "user":{"login":"octocat"},"html_url":"https://github.com/example/service/issues/1001"}]}""";
+
+    private final RoutingChatModel routingChatModel;
+    private final TokenCounter tokenCounter;
+    private final PromptAssembler promptAssembler;
+    private final ChatOptionsFactory chatOptions;
+    private final McpResultReader resultReader;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+    private final McpIntegrationMode mcpMode;
+
+    public StartupWarmup(RoutingChatModel routingChatModel,
+                         TokenCounter tokenCounter,
+                         PromptAssembler promptAssembler,
+                         ChatOptionsFactory chatOptions,
+                         McpResultReader resultReader,
+                         ObjectMapper objectMapper,
+                         @Value("${app.warmup.enabled:false}") boolean enabled,
+                         @Value("${app.warmup.iterations:500}") int iterations,
+                         @Value("${app.warmup.max-duration:20s}") Duration maxDuration,
+                         @Value("${app.ai.tools.mode:append}") McpIntegrationMode mcpMode) {
+        this.routingChatModel = routingChatModel;
+        this.tokenCounter = tokenCounter;
+        this.promptAssembler = promptAssembler;
+        this.chatOptions = chatOptions;
+        this.resultReader = resultReader;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.mcpMode = mcpMode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startNanos = System.nanoTime();
+        routingChatModel.awaitClients();
+        logger.info("LLM clients ready after {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            AiMcpService service = warmupService();
+            List<PromptRequest> prompts = List.of(
+                    new PromptRequest("List the open issues in the example/service repository."),
+                    new PromptRequest("Summarize the approach to retries in plain words."),
+                    new PromptRequest("Which repositories handle orders?", "Backend services of the shop", true));
+            long deadline = System.nanoTime() + maxDuration.toNanos();
+            int completed = 0;
+            while (completed < iterations && System.nanoTime() < deadline) {
+                objectMapper.writeValueAsBytes(service.processPrompt(prompts.get(completed % prompts.size())));
+                completed++;
+            }
+            logger.info("Warm-up ran {} prompts in {} ms", completed, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Warm-up failed, continuing startup: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The prompt pipeline over in-process stubs, with the response and MCP caches disabled so
+     * every iteration runs the full path
+     */
+    private AiMcpService warmupService() {
+        PromptMetrics metrics = new PromptMetrics(new SimpleMeterRegistry());
+        AuditLog auditLog = new AuditLog(metrics, false, Path.of("unused"), 1.0, 2, 1, Duration.ofMillis(200),
+                DataSize.ofMegabytes(1), 1, 4000);
+        StreamingChatModel chatModel = stubChatModel();
+        ChatModel toolCallingModel = prompt -> chatModel.stream(prompt).blockLast();
+
+        McpEndpointPool endpointPool = new McpEndpointPool(stubMcpWebClient(), List.of("http://warmup.stub"), metrics,
+                false, 0.95, Duration.ofMillis(500), Duration.ofMillis(20), "/mcp/tools", Duration.ofSeconds(10),
+                Duration.ofSeconds(2), 2);
+        McpQueryCache queryCache = new McpQueryCache(false, 1, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+        GitHubMcpClient gitHubMcpClient = new GitHubMcpClient(endpointPool, queryCache, resultReader,
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), metrics, auditLog,
+                Duration.ofSeconds(30));
+
+        DiskResponseCache diskCache = new DiskResponseCache(false, Path.of("unused"), DataSize.ofMegabytes(1),
+                DataSize.ofMegabytes(1), Duration.ofMinutes(10), 0.5);
+        LlmResponseCache responseCache = new LlmResponseCache(false, Duration.ofMinutes(1), 1, DataSize.ofMegabytes(1),
+                diskCache);
+        SemanticResponseCache semanticCache = new SemanticResponseCache(new HashingPromptEmbedder(256), queryCache,
+                false, 0.92f, Duration.ofMinutes(1), 2, 16, 100, 64);
+        McpToolCatalog toolCatalog = new McpToolCatalog(gitHubMcpClient, objectMapper, Duration.ofMinutes(5));
+        McpToolCallbacks toolCallbacks = new McpToolCallbacks(gitHubMcpClient, toolCatalog, metrics, Duration.ofSeconds(10));
+        ConversationStore conversationStore = new ConversationStore(chatModel, tokenCounter, chatOptions,
+                Duration.ofMinutes(30), 100, DataSize.ofMegabytes(1), 2000, 400, Duration.ofSeconds(30));
+
+        return new AiMcpService(chatModel, toolCallingModel, gitHubMcpClient, responseCache, semanticCache, toolCatalog,
+                toolCallbacks, metrics, auditLog, tokenCounter, promptAssembler, conversationStore, chatOptions,
+                Duration.ofSeconds(30), mcpMode);
+    }
+
+    /**
+     * Streaming chat model answering every prompt with the same short stream of chunks
+     */
+    private static StreamingChatModel stubChatModel() {
+        List<ChatResponse> chunks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            chunks.add(new ChatResponse(List.of(new Generation("token" + i + " "))));
+        }
+        return prompt -> Flux.fromIterable(chunks);
+    }
+
+    /**
+     * WebClient answering every MCP request with a canned query result, without any I/O
+     */
+    private static WebClient stubMcpWebClient() {
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(STUB_MCP_RESPONSE)
+                        .build()))
+                .build();
+    }
+}
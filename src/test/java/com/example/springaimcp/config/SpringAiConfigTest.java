@@ -0,0 +1,61 @@
+package com.example.springaimcp.config;
+
+import com.example.springaimcp.model.PromptJobStatus;
+import com.example.springaimcp.model.PromptResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpringAiConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, CodecsAutoConfiguration.class,
+                    WebClientAutoConfiguration.class))
+            .withUserConfiguration(JacksonConfig.class, SpringAiConfig.class);
+
+    @Test
+    void webClientPostsJobStatusesWithAResult() throws Exception {
+        AtomicReference<String> received = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/callback", exchange -> {
+            received.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            contextRunner.run(context -> {
+                PromptJobStatus status = new PromptJobStatus();
+                status.setJobId("job-1");
+                status.setStatus("succeeded");
+                status.setResult(new PromptResponse("the answer", null, false));
+
+                context.getBean("webClient", WebClient.class).post()
+                        .uri("http://127.0.0.1:" + server.getAddress().getPort() + "/callback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(status)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .block(Duration.ofSeconds(10));
+            });
+        } finally {
+            server.stop(0);
+        }
+
+        assertTrue(received.get().contains("\"response\":\"the answer\""), received.get());
+        assertTrue(received.get().contains("\"status\":\"succeeded\""), received.get());
+    }
+}
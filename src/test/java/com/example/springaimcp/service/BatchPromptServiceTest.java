@@ -0,0 +1,128 @@
+package com.example.springaimcp.service;
+
+import com.example.springaimcp.model.BatchItemResult;
+import com.example.springaimcp.model.PromptRequest;
+import com.example.springaimcp.model.PromptResponse;
+import com.example.springaimcp.service.admission.AdmissionControl;
+import com.example.springaimcp.service.admission.AdmissionRejectedException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchPromptServiceTest {
+
+    private final AiMcpService aiMcpService = mock(AiMcpService.class);
+    private final AdmissionControl admissionControl = mock(AdmissionControl.class);
+    private final BatchPromptService service = new BatchPromptService(aiMcpService, admissionControl,
+            mock(Validator.class), 100, 8, 16);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxInFlight = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void stubPipeline() {
+        when(aiMcpService.fetchMcpData(any())).thenReturn(Mono.just(AiMcpService.McpOutcome.SKIPPED));
+        when(aiMcpService.completePrompt(any(), any())).thenAnswer(invocation -> {
+            PromptRequest request = invocation.getArgument(0);
+            String session = String.valueOf(request.getSessionId());
+            return Mono.defer(() -> {
+                        started.add(request.getPrompt());
+                        int running = inFlight.computeIfAbsent(session, key -> new AtomicInteger()).incrementAndGet();
+                        maxInFlight.merge(session, running, Math::max);
+                        return Mono.delay(Duration.ofMillis(30));
+                    })
+                    .doFinally(signal -> inFlight.get(session).decrementAndGet())
+                    .map(tick -> new PromptResponse("answer to " + request.getPrompt(), null, false));
+        });
+    }
+
+    @Test
+    void runsTurnsOfASessionOneAfterAnotherInBatchOrder() {
+        List<BatchItemResult> results = service.processBatch(List.of(
+                turn("first", "s1"), turn("other", "s2"), turn("second", "s1"), turn("third", "s1"),
+                request("standalone"), request("another")), "client").collectList().block();
+
+        assertEquals(6, results.size());
+        assertEquals(1, maxInFlight.get("s1"));
+        assertTrue(started.indexOf("first") < started.indexOf("second"));
+        assertTrue(started.indexOf("second") < started.indexOf("third"));
+        assertTrue(maxInFlight.get("null") > 1, "prompts outside sessions should still run concurrently");
+        results.forEach(result -> assertEquals("success", result.getStatus()));
+    }
+
+    @Test
+    void neverDeduplicatesTurnsOfASession() {
+        List<BatchItemResult> results = service.processBatch(List.of(
+                turn("continue", "s1"), turn("continue", "s1")), "client").collectList().block();
+
+        assertEquals(2, started.size());
+        results.forEach(result -> assertFalse(result.isDuplicate()));
+    }
+
+    @Test
+    void computesIdenticalPromptsOutsideSessionsOnce() {
+        List<BatchItemResult> results = service.processBatch(List.of(
+                request("same"), request("same ")), "client").collectList().block();
+
+        assertEquals(1, started.size());
+        results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+        assertFalse(results.get(0).isDuplicate());
+        assertTrue(results.get(1).isDuplicate());
+        assertEquals("answer to same", results.get(1).getResponse().getResponse());
+    }
+
+    @Test
+    void chargesTheWholeBatchAsOneRequest() {
+        List<PromptRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(request("prompt " + i));
+        }
+
+        List<BatchItemResult> results = service.processBatch(requests, "client").collectList().block();
+
+        assertEquals(50, results.size());
+        results.forEach(result -> assertEquals("success", result.getStatus()));
+        verify(admissionControl, times(1)).admitQuota("client");
+    }
+
+    @Test
+    void rejectsTheBatchWhenTheClientIsOverQuota() {
+        doThrow(new AdmissionRejectedException("Request quota exceeded, retry later", Duration.ofSeconds(2)))
+                .when(admissionControl).admitQuota("client");
+
+        assertThrows(AdmissionRejectedException.class,
+                () -> service.processBatch(List.of(request("prompt")), "client"));
+        assertTrue(started.isEmpty());
+    }
+
+    private static PromptRequest turn(String prompt, String sessionId) {
+        PromptRequest request = request(prompt);
+        request.setSessionId(sessionId);
+        return request;
+    }
+
+    private static PromptRequest request(String prompt) {
+        return new PromptRequest(prompt);
+    }
+}
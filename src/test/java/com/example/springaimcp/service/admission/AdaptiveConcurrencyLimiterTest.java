@@ -0,0 +1,72 @@
+package com.example.springaimcp.service.admission;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsRequestsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+
+        assertNull(limiter.tryAcquire());
+        permits.get(0).releaseUnmeasured();
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void countsEachPermitOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        permit.release(true);
+        permit.release(true);
+        permit.releaseUnmeasured();
+
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void failuresBackTheLimitOffToItsMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire().release(false);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void growsWhileLatencyStaysLowAndTheLimitIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            AdaptiveConcurrencyLimiter.Permit permit;
+            while ((permit = limiter.tryAcquire()) != null) {
+                permits.add(permit);
+            }
+            permits.forEach(p -> p.release(true));
+        }
+
+        assertTrue(limiter.getLimit() > 4, "limit was " + limiter.getLimit());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 2, 50, 1.5, 0.2, 0.9,
+                new PromptMetrics(new SimpleMeterRegistry()));
+    }
+}
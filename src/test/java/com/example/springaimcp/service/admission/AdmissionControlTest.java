@@ -0,0 +1,36 @@
+package com.example.springaimcp.service.admission;
+
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AdmissionControlTest {
+
+    private final AdmissionControl admissionControl = new AdmissionControl(mock(AdaptiveConcurrencyLimiter.class),
+            mock(ClientQuotas.class), mock(PromptMetrics.class), List.of("team-a", " team-b "));
+
+    @Test
+    void keysConfiguredApiKeysByKey() {
+        String key = admissionControl.clientKey("team-a", "10.0.0.1");
+
+        assertTrue(key.startsWith("key:"));
+        assertEquals(key, admissionControl.clientKey("team-a", "10.0.0.2"));
+        assertEquals(admissionControl.clientKey("team-b", "10.0.0.1"),
+                admissionControl.clientKey("team-b", "10.0.0.3"));
+        assertNotEquals(key, admissionControl.clientKey("team-b", "10.0.0.1"));
+    }
+
+    @Test
+    void keysUnknownApiKeysByAddress() {
+        assertEquals("addr:203.0.113.7", admissionControl.clientKey("made-up-1", "203.0.113.7"));
+        assertEquals("addr:203.0.113.7", admissionControl.clientKey("made-up-2", "203.0.113.7"));
+        assertEquals("addr:203.0.113.7", admissionControl.clientKey(null, "203.0.113.7"));
+        assertEquals("addr:203.0.113.7", admissionControl.clientKey("", "203.0.113.7"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.springaimcp.service.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @ParameterizedTest
+    @CsvSource({"1, 2", "2, 2", "3, 4", "8, 8", "1000, 1024"})
+    void roundsTheCapacityUpToAPowerOfTwo(int requested, int capacity) {
+        assertEquals(capacity, new MpscRingBuffer<Integer>(requested).capacity());
+    }
+
+    @Test
+    void rejectsOffersWhenFullUntilDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> taken = new ArrayList<>();
+        assertEquals(1, buffer.drain(taken::add, 1));
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+        assertEquals(4, buffer.drain(taken::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 5), taken);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 3 == 2) {
+                buffer.drain(taken::add, Integer.MAX_VALUE);
+            }
+        }
+        buffer.drain(taken::add, Integer.MAX_VALUE);
+
+        assertEquals(1000, taken.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, taken.get(i));
+        }
+    }
+
+    /**
+     * Every offer is either taken by the consumer or reported as dropped, and each producer's
+     * elements arrive in the order it offered them
+     */
+    @Test
+    void accountsForEveryOfferUnderContention() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 200_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+        AtomicLong dropped = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (long i = 0; i < perProducer; i++) {
+                    if (!buffer.offer(new long[]{producer, i})) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] lastSeen = {-1, -1, -1, -1};
+        AtomicBoolean ordered = new AtomicBoolean(true);
+        long taken = 0;
+        start.countDown();
+        while (threads.stream().anyMatch(Thread::isAlive) || buffer.size() > 0) {
+            taken += buffer.drain(element -> {
+                int producer = (int) element[0];
+                if (element[1] <= lastSeen[producer]) {
+                    ordered.set(false);
+                }
+                lastSeen[producer] = element[1];
+            }, 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        taken += buffer.drain(element -> {}, Integer.MAX_VALUE);
+
+        assertEquals((long) producers * perProducer, taken + dropped.get());
+        assertTrue(ordered.get(), "elements of a producer were taken out of order");
+        assertEquals(0, buffer.size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
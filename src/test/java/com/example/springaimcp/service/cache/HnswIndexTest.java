@@ -0,0 +1,128 @@
+package com.example.springaimcp.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int K = 10;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void recallMatchesBruteForce(int clusters) {
+        SplittableRandom random = new SplittableRandom(11);
+        float[][] centers = new float[clusters][];
+        for (int c = 0; c < clusters; c++) {
+            centers[c] = randomUnit(random, null, 0);
+        }
+        float[][] vectors = new float[5000][];
+        HnswIndex<Integer> index = new HnswIndex<>(DIMENSIONS, vectors.length, 16, 100, 42);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnit(random, centers[random.nextInt(clusters)], 0.3f);
+            index.add(vectors[i], i);
+        }
+
+        int found = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnit(random, centers[random.nextInt(clusters)], 0.3f);
+            List<Integer> exact = bruteForce(vectors, query);
+            float kth = dot(query, vectors[exact.get(K - 1)]);
+            List<HnswIndex.Neighbor<Integer>> result = index.search(query, K, 64);
+            assertEquals(K, result.size());
+            for (HnswIndex.Neighbor<Integer> neighbor : result) {
+                assertEquals(dot(query, vectors[neighbor.value()]), neighbor.similarity(), 1e-5);
+                // The index sums the dot product in another order, which may differ in the last bit
+                if (neighbor.similarity() >= kth - 1e-6f) {
+                    found++;
+                }
+            }
+        }
+        double recall = (double) found / (queries * K);
+        assertTrue(recall >= 0.95, "recall@10 was " + recall);
+    }
+
+    @Test
+    void findsEveryIndexedVectorItself() {
+        SplittableRandom random = new SplittableRandom(3);
+        HnswIndex<Integer> index = new HnswIndex<>(DIMENSIONS, 1000, 16, 100, 42);
+        float[][] vectors = new float[1000][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnit(random, null, 0);
+            index.add(vectors[i], i);
+        }
+
+        for (int i = 0; i < vectors.length; i++) {
+            HnswIndex.Neighbor<Integer> nearest = index.search(vectors[i], 1, 64).get(0);
+            assertEquals(i, nearest.value());
+            assertEquals(1.0f, nearest.similarity(), 1e-5);
+        }
+    }
+
+    @Test
+    void searchesOfAnEmptyIndexFindNothing() {
+        HnswIndex<Integer> index = new HnswIndex<>(DIMENSIONS, 10, 16, 100, 42);
+
+        assertTrue(index.search(randomUnit(new SplittableRandom(1), null, 0), K, 64).isEmpty());
+    }
+
+    @Test
+    void rejectsVectorsBeyondCapacityOrOfAnotherSize() {
+        SplittableRandom random = new SplittableRandom(5);
+        HnswIndex<Integer> index = new HnswIndex<>(DIMENSIONS, 2, 16, 100, 42);
+        index.add(randomUnit(random, null, 0), 0);
+        index.add(randomUnit(random, null, 0), 1);
+
+        assertTrue(index.isFull());
+        assertThrows(IllegalStateException.class, () -> index.add(randomUnit(random, null, 0), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HnswIndex<Integer>(DIMENSIONS, 2, 16, 100, 42).add(new float[DIMENSIONS + 1], 0));
+    }
+
+    /**
+     * Indexes of the K vectors most similar to the query, by scanning all of them
+     */
+    private static List<Integer> bruteForce(float[][] vectors, float[] query) {
+        List<Integer> all = new ArrayList<>(IntStream.range(0, vectors.length).boxed().toList());
+        all.sort(Comparator.comparingDouble(i -> -dot(query, vectors[i])));
+        return all.subList(0, K);
+    }
+
+    /**
+     * A random unit vector, or one scattered around a center by up to spread per dimension
+     */
+    private static float[] randomUnit(SplittableRandom random, float[] center, float spread) {
+        float[] vector = new float[DIMENSIONS];
+        double sum = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = center == null ? (float) random.nextGaussian()
+                    : center[d] + spread * (float) (2 * random.nextDouble() - 1);
+            sum += vector[d] * vector[d];
+        }
+        float scale = (float) (1 / Math.sqrt(sum));
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springaimcp.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LlmResponseCacheTest {
+
+    private static final LlmResponseCache.Key KEY =
+            new LlmResponseCache.Key("Explain the retry policy", "gpt-4.1", 0.7f, 1000);
+
+    @TempDir
+    Path directory;
+
+    private DiskResponseCache diskCache;
+
+    @BeforeEach
+    void openDiskCache() {
+        diskCache = new DiskResponseCache(true, directory, DataSize.ofMegabytes(1), DataSize.ofMegabytes(16),
+                Duration.ofMinutes(10), 0.5);
+        diskCache.open();
+    }
+
+    @AfterEach
+    void closeDiskCache() {
+        diskCache.close();
+    }
+
+    @Test
+    void promotedDiskHitsKeepTheirRemainingTtl() throws InterruptedException {
+        LlmResponseCache cache = new LlmResponseCache(true, Duration.ofHours(1), 100, DataSize.ofMegabytes(1), diskCache);
+        // Written by an earlier run, with little of its TTL left
+        diskCache.put(KEY, "answer", Duration.ofMillis(300));
+
+        assertEquals("answer", cache.get(KEY));
+        Thread.sleep(600);
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void freshAnswersLiveForTheFullTtl() throws InterruptedException {
+        LlmResponseCache cache = new LlmResponseCache(true, Duration.ofHours(1), 100, DataSize.ofMegabytes(1), diskCache);
+        cache.put(KEY, "answer");
+        Thread.sleep(100);
+
+        assertEquals("answer", cache.get(KEY));
+        assertEquals("answer", diskCache.get(KEY).response());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.springaimcp.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentStoreTest {
+
+    /** CRC, key length, value length, expiry */
+    private static final int RECORD_HEADER_BYTES = 20;
+    private static final int SEGMENT_BYTES = 1 << 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensFromHintFilesAfterClose() throws IOException {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        SegmentStore store = open();
+        for (int i = 0; i < 100; i++) {
+            store.put(key(i), value(i), expiresAt);
+        }
+        store.close();
+
+        SegmentStore reopened = open();
+
+        assertTrue(Files.exists(directory.resolve("segment-0000000001.hint")));
+        for (int i = 0; i < 100; i++) {
+            SegmentStore.Entry entry = reopened.getEntry(key(i));
+            assertEquals("value-" + i, text(entry.value()));
+            assertEquals(expiresAt, entry.expiresAtMillis());
+        }
+    }
+
+    @Test
+    void recoversTheActiveSegmentAfterACrash() throws IOException {
+        SegmentStore crashed = open();
+        for (int i = 0; i < 10; i++) {
+            crashed.put(key(i), value(i), System.currentTimeMillis() + 60_000);
+        }
+        crashed.put(key(3), "updated".getBytes(StandardCharsets.UTF_8), System.currentTimeMillis() + 60_000);
+        // Not closed: the segment has no hint and is scanned
+
+        SegmentStore recovered = open();
+
+        assertEquals(10, recovered.stats().get("entries"));
+        assertEquals("updated", text(recovered.get(key(3))));
+        assertEquals("value-9", text(recovered.get(key(9))));
+    }
+
+    @Test
+    void dropsARecordTornByTruncation() throws IOException {
+        SegmentStore crashed = open();
+        for (int i = 0; i < 3; i++) {
+            crashed.put(key(i), value(i), System.currentTimeMillis() + 60_000);
+        }
+        long thirdRecordOffset = 2L * recordLength(0);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(1).toFile(), "rw")) {
+            file.setLength(thirdRecordOffset + RECORD_HEADER_BYTES + 3);
+        }
+
+        SegmentStore recovered = open();
+
+        assertEquals("value-0", text(recovered.get(key(0))));
+        assertEquals("value-1", text(recovered.get(key(1))));
+        assertNull(recovered.get(key(2)));
+        // New records go to a fresh segment and are found after another restart
+        recovered.put(key(2), value(2), System.currentTimeMillis() + 60_000);
+        recovered.close();
+        assertEquals("value-2", text(open().get(key(2))));
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        SegmentStore crashed = open();
+        for (int i = 0; i < 3; i++) {
+            crashed.put(key(i), value(i), System.currentTimeMillis() + 60_000);
+        }
+        flipByte(segmentFile(1), recordLength(0) + RECORD_HEADER_BYTES + key(1).length);
+
+        SegmentStore recovered = open();
+
+        assertEquals("value-0", text(recovered.get(key(0))));
+        assertNull(recovered.get(key(1)));
+        assertNull(recovered.get(key(2)));
+    }
+
+    @Test
+    void scansTheSegmentWhenItsHintIsCorrupt() throws IOException {
+        SegmentStore store = open();
+        store.put(key(0), value(0), System.currentTimeMillis() + 60_000);
+        store.close();
+        flipByte(directory.resolve("segment-0000000001.hint"), 20);
+
+        assertEquals("value-0", text(open().get(key(0))));
+    }
+
+    @Test
+    void skipsExpiredRecords() throws IOException {
+        SegmentStore store = open();
+        store.put(key(0), value(0), System.currentTimeMillis() - 1);
+        store.put(key(1), value(1), System.currentTimeMillis() + 60_000);
+
+        assertNull(store.get(key(0)));
+        store.close();
+        SegmentStore reopened = open();
+        assertNull(reopened.get(key(0)));
+        assertEquals("value-1", text(reopened.get(key(1))));
+    }
+
+    @Test
+    void rejectsRecordsLargerThanASegment() throws IOException {
+        SegmentStore store = open();
+
+        assertFalse(store.put(key(0), new byte[SEGMENT_BYTES], System.currentTimeMillis() + 60_000));
+        assertNull(store.get(key(0)));
+    }
+
+    private SegmentStore open() throws IOException {
+        return new SegmentStore(directory, SEGMENT_BYTES, 1L << 30);
+    }
+
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("segment-%010d.log", id));
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.position(offset).read(buffer);
+            buffer.put(0, (byte) ~buffer.get(0)).rewind();
+            channel.position(offset).write(buffer);
+        }
+    }
+
+    private static int recordLength(int i) {
+        return RECORD_HEADER_BYTES + key(i).length + value(i).length;
+    }
+
+    private static byte[] key(int i) {
+        return ("key-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] value(int i) {
+        return ("value-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer value) {
+        return StandardCharsets.UTF_8.decode(value).toString();
+    }
+}
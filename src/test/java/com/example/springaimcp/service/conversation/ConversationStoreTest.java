@@ -0,0 +1,50 @@
+package com.example.springaimcp.service.conversation;
+
+import com.example.springaimcp.service.llm.ChatOptionsFactory;
+import com.example.springaimcp.service.prompt.TokenCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationStoreTest {
+
+    private final StreamingChatModel chatModel = mock(StreamingChatModel.class);
+    private final ConversationStore store = new ConversationStore(chatModel, new TokenCounter(),
+            new ChatOptionsFactory("gpt-4.1", 0.7f, 1000, "", 0, ""), Duration.ofMinutes(30), 100,
+            DataSize.ofMegabytes(1), 20, 400, Duration.ofMillis(200));
+
+    @Test
+    void truncatesWhenTheSummaryCallHangs() throws InterruptedException {
+        when(chatModel.stream(any(Prompt.class))).thenReturn(Flux.never());
+
+        store.append("s1", "Which repositories did we look at first?", "We looked at spring-projects/spring-ai.");
+        store.append("s1", "And which issues were open there?", "Issue 123 about streaming was open.");
+        Thread.sleep(600);
+
+        assertEquals(1L, store.stats().get("compactions"));
+        assertEquals(1L, store.stats().get("failedCompactions"));
+        assertTrue(store.history("s1").startsWith("Summary of the earlier conversation:"));
+        assertFalse(store.history("s1").contains("User: Which repositories did we look at first?"));
+
+        // The session is no longer marked compacting, so later turns are compacted again
+        store.append("s1", "Who opened that issue?", "It was opened by a maintainer of the project.");
+        store.append("s1", "Is there a pull request for it?", "Yes, pull request 456 fixes it.");
+        Thread.sleep(600);
+
+        verify(chatModel, times(2)).stream(any(Prompt.class));
+        assertEquals(2L, store.stats().get("compactions"));
+    }
+}
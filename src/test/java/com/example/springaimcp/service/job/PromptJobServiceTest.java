@@ -0,0 +1,86 @@
+package com.example.springaimcp.service.job;
+
+import com.example.springaimcp.model.PromptJobRequest;
+import com.example.springaimcp.service.metrics.PromptMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptJobServiceTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "http://127.0.0.1:8080/done",
+            "http://localhost/done",
+            "http://169.254.169.254/latest/meta-data/",
+            "http://10.0.0.5/done",
+            "http://172.16.3.4/done",
+            "http://192.168.1.1/done",
+            "http://100.64.0.1/done",
+            "http://0.0.0.0/done",
+            "http://[::1]/done",
+            "http://[fe80::1]/done",
+            "http://[fd00::1]/done",
+            "http://[::ffff:127.0.0.1]/done",
+            "http://callback.invalid/done",
+            "ftp://203.0.113.10/done",
+            "/relative/done"
+    })
+    void rejectsCallbacksIntoPrivateNetworksWithoutAllowedHosts(String callbackUrl) {
+        PromptJobService service = service(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request(callbackUrl)));
+    }
+
+    @Test
+    void acceptsCallbacksToPublicAddresses() {
+        PromptJobService service = service(List.of());
+
+        assertEquals("queued", service.submit(request("https://203.0.113.10/done")).getStatus());
+        assertEquals("queued", service.submit(request("http://[2001:db8::1]/done")).getStatus());
+    }
+
+    @Test
+    void allowedHostsReplaceTheAddressCheck() {
+        PromptJobService service = service(List.of("localhost", " Hooks.Example.com "));
+
+        assertEquals("queued", service.submit(request("http://localhost:9000/done")).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request("https://203.0.113.10/done")));
+    }
+
+    @Test
+    void classifiesAddresses() throws UnknownHostException {
+        assertTrue(PromptJobService.isPublicAddress(InetAddress.getByName("8.8.8.8")));
+        assertTrue(PromptJobService.isPublicAddress(InetAddress.getByName("100.128.0.1")));
+        assertTrue(PromptJobService.isPublicAddress(InetAddress.getByName("2606:4700::1111")));
+        assertFalse(PromptJobService.isPublicAddress(InetAddress.getByName("100.127.255.255")));
+        assertFalse(PromptJobService.isPublicAddress(InetAddress.getByName("224.0.0.1")));
+        assertFalse(PromptJobService.isPublicAddress(InetAddress.getByName("fc00::1")));
+    }
+
+    /**
+     * A service without workers, so submitted jobs stay queued
+     */
+    private static PromptJobService service(List<String> allowedHosts) {
+        return new PromptJobService(null, null, null, new PromptMetrics(new SimpleMeterRegistry()), 100, 1,
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 0, allowedHosts);
+    }
+
+    private static PromptJobRequest request(String callbackUrl) {
+        PromptJobRequest request = new PromptJobRequest();
+        request.setPrompt("Explain the retry policy");
+        request.setCallbackUrl(callbackUrl);
+        return request;
+    }
+}
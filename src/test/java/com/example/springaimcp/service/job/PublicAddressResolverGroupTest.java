@@ -0,0 +1,46 @@
+package com.example.springaimcp.service.job;
+
+import io.netty.resolver.AddressResolver;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicAddressResolverGroupTest {
+
+    private final AddressResolver<InetSocketAddress> resolver =
+            PublicAddressResolverGroup.INSTANCE.getResolver(ImmediateEventExecutor.INSTANCE);
+
+    @Test
+    void failsForHostsResolvingToNonPublicAddresses() {
+        Future<InetSocketAddress> resolved = resolver.resolve(InetSocketAddress.createUnresolved("localhost", 8080));
+
+        assertTrue(resolved.isDone());
+        assertFalse(resolved.isSuccess());
+        assertInstanceOf(UnknownHostException.class, resolved.cause());
+    }
+
+    @Test
+    void resolvesPublicAddresses() {
+        Future<InetSocketAddress> resolved = resolver.resolve(InetSocketAddress.createUnresolved("203.0.113.10", 443));
+
+        assertTrue(resolved.isSuccess());
+        assertEquals("203.0.113.10", resolved.getNow().getAddress().getHostAddress());
+        assertEquals(443, resolved.getNow().getPort());
+    }
+
+    @Test
+    void rejectsEveryHostWithANonPublicAddress() {
+        assertThrows(UnknownHostException.class, () -> PublicAddressResolverGroup.resolvePublic("127.0.0.1"));
+        assertThrows(UnknownHostException.class, () -> PublicAddressResolverGroup.resolvePublic("169.254.169.254"));
+        assertThrows(UnknownHostException.class, () -> PublicAddressResolverGroup.resolvePublic("callback.invalid"));
+    }
+}
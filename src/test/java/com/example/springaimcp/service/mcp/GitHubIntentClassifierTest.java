@@ -0,0 +1,57 @@
+package com.example.springaimcp.service.mcp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GitHubIntentClassifierTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Show me the latest commits on GitHub | GENERAL",
+            "Which branches are stale? | GENERAL",
+            "List open PRs | PULL_REQUESTS",
+            "review this pr please | PULL_REQUESTS",
+            "Any Pull Requests waiting? | PULL_REQUESTS",
+            "pull-request status | PULL_REQUESTS",
+            "What issues were filed today? | ISSUES",
+            "Summarize the repo | REPOSITORY",
+            "REPOSITORIES I starred | REPOSITORY"
+    })
+    void matchesKeywordsAsWholeWordsIgnoringCase(String prompt, GitHubIntent intent) {
+        assertEquals(intent, GitHubIntentClassifier.classify(prompt));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "What is the price of this?",
+            "How can I improve my essay?",
+            "Send a request to the server",
+            "Pull the lever",
+            "A reissue of the album",
+            "The repost went viral",
+            "githubs",
+            "repositoryrepository"
+    })
+    void ignoresKeywordsInsideOtherWordsAndRequestWithoutPull(String prompt) {
+        assertEquals(GitHubIntent.NONE, GitHubIntentClassifier.classify(prompt));
+    }
+
+    @Test
+    void prefersTheHighestPrecedenceIntent() {
+        assertEquals(GitHubIntent.ISSUES, GitHubIntentClassifier.classify("Link the PR to its issue"));
+        assertEquals(GitHubIntent.REPOSITORY,
+                GitHubIntentClassifier.classify("Open issues and PRs of the repository"));
+        assertEquals(GitHubIntent.PULL_REQUESTS, GitHubIntentClassifier.classify("commit then open a pull request"));
+    }
+
+    @Test
+    void onlyMatchesRequestRightAfterPull() {
+        assertEquals(GitHubIntent.NONE, GitHubIntentClassifier.classify("pull the latest and request review"));
+    }
+}
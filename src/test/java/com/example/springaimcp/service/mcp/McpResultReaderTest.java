@@ -0,0 +1,161 @@
+package com.example.springaimcp.service.mcp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpResultReaderTest {
+
+    private static final int CHUNK_BYTES = 16;
+
+    private final AtomicInteger chunksRead = new AtomicInteger();
+
+    @Test
+    void readsASmallBodyWhole() {
+        McpResultReader reader = reader(10, 100, DataSize.ofMegabytes(1));
+        String body = "{\"status\":\"ok\",\"count\":2,\"issues\":["
+                + "{\"number\":1,\"title\":\"First\",\"state\":\"open\",\"user\":{\"login\":\"octocat\"},"
+                + "\"html_url\":\"https://github.com/o/r/issues/1\",\"labels\":[{\"name\":\"bug\"}]},"
+                + "{\"number\":2,\"title\":\"Second\",\"state\":\"closed\",\"author\":\"hubot\"}]}";
+
+        Map<String, Object> result = reader.read(chunks(body), "issues").block();
+
+        assertEquals("ok", result.get("status"));
+        assertEquals(2, ((Number) result.get("count")).intValue());
+        assertEquals(List.of(
+                new GitHubIssue(1, "First", "open", "octocat", "https://github.com/o/r/issues/1"),
+                new GitHubIssue(2, "Second", "closed", "hubot", null)), result.get("issues"));
+        assertFalse(result.containsKey("truncated"));
+    }
+
+    @Test
+    void stopsReadingOnceTheQueriedListIsFull() {
+        McpResultReader reader = reader(3, 100, DataSize.ofMegabytes(1));
+        String body = issuesBody(50);
+
+        Map<String, Object> result = reader.read(chunks(body), "issues").block();
+
+        assertEquals(3, ((List<?>) result.get("issues")).size());
+        // A full list is what was asked for, not a truncation
+        assertFalse(result.containsKey("truncated"));
+        assertTrue(chunksRead.get() < body.length() / CHUNK_BYTES / 2,
+                "read " + chunksRead.get() + " chunks of a body that is full after a few items");
+    }
+
+    @Test
+    void capsOtherListsAtMaxResultsAndMarksThemTruncated() {
+        McpResultReader reader = reader(2, 100, DataSize.ofMegabytes(1));
+        String body = "{\"repositories\":[" + repositories(5) + "],\"issues\":[]}";
+
+        Map<String, Object> result = reader.read(chunks(body), "issues").block();
+
+        assertEquals(2, ((List<?>) result.get("repositories")).size());
+        assertEquals(List.of(), result.get("issues"));
+        assertEquals(true, result.get("truncated"));
+    }
+
+    @Test
+    void stopsAtMaxItemsAcrossLists() {
+        McpResultReader reader = reader(10, 4, DataSize.ofMegabytes(1));
+        String body = "{\"repositories\":[" + repositories(3) + "],\"issues\":[" + issues(10) + "]}";
+
+        Map<String, Object> result = reader.read(chunks(body), "issues").block();
+
+        assertEquals(3, ((List<?>) result.get("repositories")).size());
+        assertEquals(1, ((List<?>) result.get("issues")).size());
+        assertEquals(true, result.get("truncated"));
+        assertTrue(chunksRead.get() < body.length() / CHUNK_BYTES);
+    }
+
+    @Test
+    void stopsAtMaxBytesAndDropsTheItemCutOff() {
+        McpResultReader reader = reader(100, 1000, DataSize.ofBytes(300));
+        String body = issuesBody(50);
+
+        Map<String, Object> result = reader.read(chunks(body), "issues").block();
+
+        List<?> issues = (List<?>) result.get("issues");
+        assertFalse(issues.isEmpty());
+        assertTrue(issues.size() < 50);
+        issues.forEach(issue -> assertTrue(((GitHubIssue) issue).title() != null, "a partial item was kept"));
+        assertEquals(true, result.get("truncated"));
+        assertTrue(chunksRead.get() <= 300 / CHUNK_BYTES + 1,
+                "read " + chunksRead.get() + " chunks past the byte cap");
+    }
+
+    @Test
+    void returnsEmptyForAnEmptyBody() {
+        McpResultReader reader = reader(10, 100, DataSize.ofMegabytes(1));
+
+        assertNull(reader.read(Flux.empty(), "issues").block());
+    }
+
+    @Test
+    void failsOnABodyEndingMidDocument() {
+        McpResultReader reader = reader(10, 100, DataSize.ofMegabytes(1));
+        String body = issuesBody(5);
+
+        StepVerifier.create(reader.read(chunks(body.substring(0, body.length() / 2)), "issues"))
+                .expectError(IOException.class)
+                .verify();
+    }
+
+    private static McpResultReader reader(int maxResults, int maxItems, DataSize maxBytes) {
+        return new McpResultReader(maxResults, maxItems, maxBytes);
+    }
+
+    /**
+     * The body in small buffers, counting the buffers the reader pulls
+     */
+    private Flux<DataBuffer> chunks(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += CHUNK_BYTES) {
+            int length = Math.min(CHUNK_BYTES, bytes.length - offset);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, offset, offset + length)));
+        }
+        return Flux.fromIterable(buffers).doOnNext(buffer -> chunksRead.incrementAndGet());
+    }
+
+    private static String issuesBody(int count) {
+        return "{\"status\":\"ok\",\"issues\":[" + issues(count) + "]}";
+    }
+
+    private static String issues(int count) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            json.append(i > 1 ? "," : "")
+                    .append("{\"number\":").append(i)
+                    .append(",\"title\":\"Issue ").append(i)
+                    .append("\",\"state\":\"open\",\"user\":{\"login\":\"user").append(i).append("\"}}");
+        }
+        return json.toString();
+    }
+
+    private static String repositories(int count) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            json.append(i > 1 ? "," : "")
+                    .append("{\"name\":\"repo").append(i)
+                    .append("\",\"owner\":{\"login\":\"octocat\"},\"stargazers_count\":").append(i).append('}');
+        }
+        return json.toString();
+    }
+}